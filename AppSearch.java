@@ -0,0 +1,217 @@
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Deadline-bounded search for an application file under a few root folders.
+ *
+ * Each directory is a fork/join task, so subtrees fan out over a
+ * work-stealing pool and a deep vendor folder cannot hold up the rest.
+ * Candidates are ranked rather than taken in directory order:
+ * <ol>
+ *   <li>file name equals the query ("chrome" finds chrome.exe)</li>
+ *   <li>file name starts with it</li>
+ *   <li>file name contains it</li>
+ *   <li>a launchable file somewhere inside a folder whose name contains it</li>
+ * </ol>
+ * An exact match cancels all outstanding work at once; otherwise the search
+ * stops at the deadline and returns the best candidate seen so far.
+ */
+public final class AppSearch {
+    public static final long DEFAULT_DEADLINE_MILLIS = 300;
+    public static final int DEFAULT_MAX_DEPTH = 8;
+
+    public static final int EXACT = 0;
+    public static final int PREFIX = 1;
+    public static final int SUBSTRING = 2;
+    public static final int IN_FOLDER = 3;
+    public static final int NONE = Integer.MAX_VALUE;
+
+    /**
+     * Outcome of one search. {@code path} is null when nothing matched.
+     */
+    public static final class Result {
+        public final String path;
+        public final int rank;
+        public final int dirsVisited;
+        public final boolean timedOut;
+        public final long elapsedMillis;
+
+        public Result(String path, int rank, int dirsVisited, boolean timedOut, long elapsedMillis) {
+            this.path = path;
+            this.rank = rank;
+            this.dirsVisited = dirsVisited;
+            this.timedOut = timedOut;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return (path != null ? path + " (rank " + rank + ")" : "no match") + ", " + dirsVisited
+                    + " dirs in " + elapsedMillis + " ms" + (timedOut ? ", deadline hit" : "");
+        }
+    }
+
+    public final ForkJoinPool pool;
+    public final Set<String> extensions;
+    public final int maxDepth;
+
+    public AppSearch(Set<String> extensions) {
+        // Directory listing blocks on I/O, so run more workers than cores
+        this(new ForkJoinPool(Math.max(4, Runtime.getRuntime().availableProcessors() * 2)),
+                extensions, DEFAULT_MAX_DEPTH);
+    }
+
+    public AppSearch(ForkJoinPool pool, Set<String> extensions, int maxDepth) {
+        this.pool = pool;
+        this.extensions = new HashSet<>();
+        for (String e : extensions) this.extensions.add(e.toLowerCase());
+        this.maxDepth = maxDepth;
+    }
+
+    public Result search(List<Path> roots, String appName) {
+        return search(roots, appName, DEFAULT_DEADLINE_MILLIS);
+    }
+
+    /**
+     * Search the roots for {@code appName}, returning within about
+     * {@code deadlineMillis}.
+     */
+    public Result search(List<Path> roots, String appName, long deadlineMillis) {
+        long t0 = System.nanoTime();
+        Run run = new Run(appName.trim().toLowerCase());
+        List<Walk> walks = new ArrayList<>();
+        for (Path r : roots) {
+            if (r != null) walks.add(new Walk(run, r, 0, false));
+        }
+        // One root task fans out to every folder and signals when all are done
+        pool.execute(ForkJoinTask.adapt(() -> {
+            ForkJoinTask.invokeAll(walks);
+            run.finished.complete(null);
+        }));
+        boolean timedOut = false;
+        try {
+            run.finished.get(deadlineMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            timedOut = true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ex) {
+            // cannot happen: finished is only ever completed normally
+        }
+        run.cancelled = true;
+        Candidate best = run.best.get();
+        return new Result(best != null ? best.path : null, best != null ? best.rank : NONE,
+                run.dirs.get(), timedOut, (System.nanoTime() - t0) / 1_000_000);
+    }
+
+    public static final class Candidate {
+        public final String path;
+        public final int rank;
+        public final int nameLength;
+
+        public Candidate(String path, int rank, int nameLength) {
+            this.path = path;
+            this.rank = rank;
+            this.nameLength = nameLength;
+        }
+
+        public boolean beats(Candidate o) {
+            if (o == null) return true;
+            if (rank != o.rank) return rank < o.rank;
+            if (nameLength != o.nameLength) return nameLength < o.nameLength;
+            return path.compareTo(o.path) < 0;
+        }
+    }
+
+    // State shared by the tasks of one search
+    public static final class Run {
+        public final String query;
+        public final AtomicReference<Candidate> best = new AtomicReference<>();
+        public final AtomicInteger dirs = new AtomicInteger();
+        public final CompletableFuture<Void> finished = new CompletableFuture<>();
+        public volatile boolean cancelled = false;
+
+        public Run(String query) {
+            this.query = query;
+        }
+
+        public void offer(Candidate c) {
+            Candidate cur;
+            do {
+                cur = best.get();
+                if (!c.beats(cur)) return;
+            } while (!best.compareAndSet(cur, c));
+            if (c.rank == EXACT) {
+                cancelled = true;
+                finished.complete(null);
+            }
+        }
+    }
+
+    public boolean launchable(String lowerName) {
+        int dot = lowerName.lastIndexOf('.');
+        return dot > 0 && extensions.contains(lowerName.substring(dot));
+    }
+
+    /**
+     * Lists one directory and forks its subdirectories.
+     */
+    public final class Walk extends RecursiveAction {
+        public static final long serialVersionUID = 1L;
+        public final Run run;
+        public final Path dir;
+        public final int depth;
+        public final boolean underMatch;  // some enclosing folder's name matched
+
+        public Walk(Run run, Path dir, int depth, boolean underMatch) {
+            this.run = run;
+            this.dir = dir;
+            this.depth = depth;
+            this.underMatch = underMatch;
+        }
+
+        @Override
+        protected void compute() {
+            if (run.cancelled) return;
+            run.dirs.incrementAndGet();
+            String dirName = dir.getFileName() != null ? dir.getFileName().toString().toLowerCase() : "";
+            boolean folderMatch = underMatch || (depth > 0 && dirName.contains(run.query));
+            List<Walk> subs = new ArrayList<>();
+            try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir)) {
+                for (Path p : ds) {
+                    if (run.cancelled) return;
+                    BasicFileAttributes a;
+                    try {
+                        a = Files.readAttributes(p, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    } catch (IOException ex) {
+                        continue;
+                    }
+                    if (a.isDirectory()) {
+                        if (depth < maxDepth) subs.add(new Walk(run, p, depth + 1, folderMatch));
+                        continue;
+                    }
+                    String file = p.getFileName().toString().toLowerCase();
+                    if (!launchable(file)) continue;
+                    String base = file.substring(0, file.lastIndexOf('.'));
+                    int rank = base.equals(run.query) ? EXACT
+                            : base.startsWith(run.query) ? PREFIX
+                            : base.contains(run.query) ? SUBSTRING
+                            : folderMatch ? IN_FOLDER : NONE;
+                    if (rank != NONE) run.offer(new Candidate(p.toString(), rank, base.length()));
+                }
+            } catch (IOException | SecurityException ex) {
+                // skip unreadable directories
+            }
+            invokeAll(subs);
+        }
+    }
+
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+}
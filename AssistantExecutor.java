@@ -0,0 +1,205 @@
+import java.awt.Window;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.lang.reflect.Method;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared executor for the assistant's short-lived background work (app
+ * launches, guided sessions).
+ *
+ * On a JDK with virtual threads every task gets its own virtual thread, so a
+ * session that sleeps through minutes of steps costs a few hundred bytes of
+ * heap instead of a platform stack. Older JDKs fall back to a pool of named
+ * daemon threads that keeps no core threads and lets idle ones expire, so
+ * either way an idle assistant holds no worker threads.
+ *
+ * Work is submitted through a {@link Scope}. Cancelling a scope interrupts
+ * everything still running in it; {@link Scope#bindTo(Window)} cancels the
+ * scope when its window closes. {@link #shutdown()} cancels every scope.
+ */
+public final class AssistantExecutor {
+    public static final long IDLE_KEEP_ALIVE_SECONDS = 30;
+
+    public final ExecutorService executor;
+    public final boolean virtual;
+    public final Scope root;
+
+    public final AtomicInteger inFlight = new AtomicInteger();
+    public final AtomicLong submitted = new AtomicLong();
+    public final AtomicLong completed = new AtomicLong();
+    public final AtomicLong failed = new AtomicLong();
+    public final AtomicLong cancelled = new AtomicLong();
+
+    public AssistantExecutor(String name) {
+        ExecutorService v = newVirtualExecutor();
+        virtual = v != null;
+        executor = v != null ? v : newPlatformExecutor(name);
+        root = new Scope(name, null);
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() where the JDK has it (21+)
+    public static ExecutorService newVirtualExecutor() {
+        try {
+            Method m = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) m.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            return null;
+        }
+    }
+
+    public static ExecutorService newPlatformExecutor(String name) {
+        AtomicInteger n = new AtomicInteger();
+        return new ThreadPoolExecutor(0, Integer.MAX_VALUE, IDLE_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), r -> {
+                    Thread t = new Thread(r, name + "-" + n.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    public final class Job extends FutureTask<Void> {
+        public final Scope scope;
+
+        public Job(Scope scope, Runnable task) {
+            super(task, null);
+            this.scope = scope;
+        }
+
+        @Override
+        protected void done() {
+            // Runs once, on completion, failure or cancellation
+            if (isCancelled()) {
+                scope.finish(this);
+                return;
+            }
+            try {
+                get();
+                completed.incrementAndGet();
+            } catch (ExecutionException ex) {
+                failed.incrementAndGet();
+                System.out.println("[" + scope.name + "] " + ex.getCause());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            scope.finish(this);
+        }
+    }
+
+    /**
+     * A group of tasks cancelled together. Child scopes are cancelled with
+     * their parent.
+     */
+    public final class Scope {
+        public final String name;
+        public final Scope parent;
+        public final Set<Job> running = ConcurrentHashMap.newKeySet();
+        public final Set<Scope> children = ConcurrentHashMap.newKeySet();
+        public volatile boolean closed = false;
+
+        public Scope(String name, Scope parent) {
+            this.name = name;
+            this.parent = parent;
+        }
+
+        public Scope child(String childName) {
+            Scope s = new Scope(name + "/" + childName, this);
+            children.add(s);
+            // A child opened while this scope was closing must not outlive it
+            if (closed) s.cancel();
+            return s;
+        }
+
+        /**
+         * Run a task in this scope. Returns null if the scope is already cancelled.
+         */
+        public Future<?> submit(Runnable task) {
+            if (closed) return null;
+            submitted.incrementAndGet();
+            inFlight.incrementAndGet();
+            Job job = new Job(this, task);
+            running.add(job);
+            try {
+                executor.execute(job);
+            } catch (RejectedExecutionException ex) {
+                job.cancel(false);
+                finish(job);
+                cancelled.incrementAndGet();
+                return null;
+            }
+            if (closed) cancel();
+            return job;
+        }
+
+        // Whichever of the task and cancel() gets here first settles in-flight
+        public void finish(Job job) {
+            if (running.remove(job)) inFlight.decrementAndGet();
+        }
+
+        /**
+         * Interrupt every task still running here and refuse new ones.
+         */
+        public void cancel() {
+            closed = true;
+            for (Scope s : children) s.cancel();
+            children.clear();
+            for (Job job : running) {
+                // A task cancelled before it started never runs, so settle it here
+                if (job.cancel(true)) cancelled.incrementAndGet();
+                finish(job);
+            }
+            if (parent != null) parent.children.remove(this);
+        }
+
+        /**
+         * Cancel this scope when the window is closed or disposed.
+         */
+        public Scope bindTo(Window w) {
+            w.addWindowListener(new WindowAdapter() {
+                @Override
+                public void windowClosed(WindowEvent e) {
+                    cancel();
+                }
+            });
+            return this;
+        }
+    }
+
+    /**
+     * A new top-level scope, cancelled by {@link #shutdown()}.
+     */
+    public Scope scope(String name) {
+        return root.child(name);
+    }
+
+    public Future<?> submit(Runnable task) {
+        return root.submit(task);
+    }
+
+    public int getInFlight() { return inFlight.get(); }
+
+    public long getCompleted() { return completed.get(); }
+
+    public String stats() {
+        return String.format("%s: %d in flight, %d submitted, %d completed, %d failed, %d cancelled",
+                virtual ? "virtual" : "platform", inFlight.get(), submitted.get(),
+                completed.get(), failed.get(), cancelled.get());
+    }
+
+    /**
+     * Cancel every scope and stop the executor, waiting briefly for
+     * interrupted tasks to unwind.
+     */
+    public void shutdown() {
+        root.cancel();
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
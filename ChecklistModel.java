@@ -0,0 +1,127 @@
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableCellRenderer;
+import java.awt.*;
+
+/**
+ * Table model behind the main window's checklist: a done checkbox and a
+ * label per task of the day, in the order the store publishes them.
+ *
+ * The table creates renderer and editor components only for the rows it
+ * paints, so a day with hundreds of tasks costs no more than the visible
+ * ones. Ticking a box updates that task through the store (under the day's
+ * lock) and fires a single-row change; the
+ * whole model is reloaded only when the store publishes a different item
+ * array for the day (an add, edit or removal).
+ */
+public class ChecklistModel extends AbstractTableModel {
+    public static final long serialVersionUID = 1L;
+    public static final int DONE_COLUMN = 0;
+    public static final int TITLE_COLUMN = 1;
+
+    /**
+     * Told about every box the user ticks or clears.
+     */
+    public interface Toggle {
+        void toggled(Task task, boolean done);
+    }
+
+    public final transient ScheduleStore store;
+    public final transient Toggle onToggle;
+    // Date the rows belong to
+    public java.time.LocalDate date;
+    public transient Task[] tasks = new Task[0];
+    public String[] labels = new String[0];
+    public int doneCount = 0;
+    // Published items the rows were built from; compared by identity
+    public transient ScheduleSnapshot.Item[] loaded;
+
+    public ChecklistModel(ScheduleStore store, Toggle onToggle) {
+        this.store = store;
+        this.onToggle = onToggle;
+    }
+
+    /**
+     * Rebuild the rows from a day's published items. Returns false, and
+     * fires nothing, when these are the items already shown.
+     */
+    public boolean load(java.time.LocalDate day, ScheduleSnapshot.Item[] items) {
+        date = day;
+        if (items == null) items = new ScheduleSnapshot.Item[0];
+        if (items == loaded || (loaded != null && loaded.length == 0 && items.length == 0)) return false;
+        Task[] ts = new Task[items.length];
+        String[] ls = new String[items.length];
+        int d = 0;
+        for (int i = 0; i < items.length; i++) {
+            ScheduleSnapshot.Item it = items[i];
+            ts[i] = it.task;
+            ls[i] = it.getTitle() + (it.getStartTime() != null ? " (" + it.getStartTime() + ")" : "");
+            if (it.task.isDone()) d++;
+        }
+        tasks = ts;
+        labels = ls;
+        doneCount = d;
+        loaded = items;
+        fireTableDataChanged();
+        return true;
+    }
+
+    public Task taskAt(int row) {
+        return tasks[row];
+    }
+
+    @Override
+    public int getRowCount() {
+        return tasks.length;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return 2;
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return column == DONE_COLUMN ? Boolean.class : String.class;
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return column == DONE_COLUMN;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        return column == DONE_COLUMN ? Boolean.valueOf(tasks[row].isDone()) : labels[row];
+    }
+
+    @Override
+    public void setValueAt(Object value, int row, int column) {
+        if (column != DONE_COLUMN) return;
+        Task t = tasks[row];
+        boolean d = Boolean.TRUE.equals(value);
+        if (t.isDone() == d) return;
+        store.edit(date, t, () -> t.setDone(d));
+        doneCount += d ? 1 : -1;
+        fireTableRowsUpdated(row, row);
+        if (onToggle != null) onToggle.toggled(t, d);
+    }
+
+    /**
+     * Draws the label green once its task is done.
+     */
+    public static class TitleRenderer extends DefaultTableCellRenderer {
+        public static final long serialVersionUID = 1L;
+        public static final Color DONE_COLOR = new Color(46, 204, 113);
+
+        @Override
+        public Component getTableCellRendererComponent(JTable table, Object value, boolean selected,
+                                                       boolean focused, int row, int column) {
+            super.getTableCellRendererComponent(table, value, false, false, row, column);
+            boolean done = ((ChecklistModel) table.getModel()).taskAt(table.convertRowIndexToModel(row)).isDone();
+            setForeground(done ? DONE_COLOR : Color.WHITE);
+            setBackground(table.getBackground());
+            return this;
+        }
+    }
+}
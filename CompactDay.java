@@ -0,0 +1,126 @@
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * Cold-storage form of one day's tasks, laid out as parallel primitive arrays.
+ *
+ * A hot {@link Task} costs an object header, two LocalTime objects, a String
+ * and a slot in a list. Here task i is just {@code start[i]}, {@code end[i]}
+ * (minute of day, -1 when unset), {@code duration[i]}, {@code id[i]}, a bit
+ * in {@code done} and an index into a shared {@link TitlePool}, so repeated
+ * titles across years of history are stored once. Full-day scans such as
+ * counting completed tasks or busy minutes run over these arrays without
+ * touching any objects.
+ *
+ * Tasks are kept in the same order as the {@link DayTasks} they were packed
+ * from. {@link #view(int)} hands out a Task built on demand;
+ * {@link ScheduleStore} thaws a whole day back into Tasks before it is edited.
+ */
+public final class CompactDay {
+
+    /**
+     * Append-only intern table for task titles, shared by every packed day.
+     */
+    public static final class TitlePool {
+        public final Map<String, Integer> ids = new HashMap<>();
+        public final List<String> titles = new ArrayList<>();
+
+        public synchronized int intern(String title) {
+            Integer id = ids.get(title);
+            if (id != null) return id;
+            int next = titles.size();
+            titles.add(title);
+            ids.put(title, next);
+            return next;
+        }
+
+        public synchronized String get(int id) { return titles.get(id); }
+
+        public synchronized int size() { return titles.size(); }
+    }
+
+    public final TitlePool pool;
+    public final short[] start;
+    public final short[] end;
+    public final int[] duration;
+    public final long[] id;
+    public final int[] title;
+    public final BitSet done;
+
+    public CompactDay(TitlePool pool, int size) {
+        this.pool = pool;
+        this.start = new short[size];
+        this.end = new short[size];
+        this.duration = new int[size];
+        this.id = new long[size];
+        this.title = new int[size];
+        this.done = new BitSet(size);
+    }
+
+    /**
+     * Pack a day's tasks, keeping their order.
+     */
+    public static CompactDay pack(List<Task> tasks, TitlePool pool) {
+        CompactDay c = new CompactDay(pool, tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            Task t = tasks.get(i);
+            c.start[i] = minuteOf(t.getStartTime());
+            c.end[i] = minuteOf(t.getEndTime());
+            c.duration[i] = t.getDurationMinutes();
+            c.id[i] = t.getId();
+            c.title[i] = pool.intern(t.getTitle());
+            if (t.isDone()) c.done.set(i);
+        }
+        return c;
+    }
+
+    public static short minuteOf(LocalTime t) {
+        return t == null ? -1 : (short) (t.getHour() * 60 + t.getMinute());
+    }
+
+    public static LocalTime timeOf(short minute) {
+        return minute < 0 ? null : LocalTime.of(minute / 60, minute % 60);
+    }
+
+    public int size() { return start.length; }
+
+    public int doneCount() { return done.cardinality(); }
+
+    /**
+     * A new Task carrying task i's state. Changes to it are not written back.
+     */
+    public Task view(int i) {
+        return new Task(id[i], pool.get(title[i]),
+                timeOf(start[i]), timeOf(end[i]), duration[i], done.get(i));
+    }
+
+    /**
+     * Every task as a hot, editable list in the packed order.
+     */
+    public DayTasks thaw() {
+        List<Task> out = new ArrayList<>(size());
+        for (int i = 0; i < size(); i++) out.add(view(i));
+        return new DayTasks(out);
+    }
+
+    /**
+     * Minutes within [from, to) covered by pending timed tasks, counted
+     * once even where tasks overlap.
+     */
+    public int busyMinutes(int from, int to) {
+        return occupancy().busyMinutes(from, to);
+    }
+
+    /**
+     * Minutes of the day covered by pending timed tasks, straight from the
+     * arrays (the same rule a hot day's {@link DayIndex} uses).
+     */
+    public MinuteBitmap occupancy() {
+        MinuteBitmap m = new MinuteBitmap();
+        for (int i = 0; i < size(); i++) {
+            if (done.get(i) || start[i] < 0 || end[i] < 0) continue;
+            m.set(start[i], end[i]);
+        }
+        return m;
+    }
+}
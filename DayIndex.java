@@ -0,0 +1,113 @@
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-day index over the day's timed, not-done tasks: an interval tree for
+ * overlap queries and a minute occupancy bitmap for free-slot search.
+ *
+ * Each indexed task points back here through {@link Task#observer}, so changes
+ * made through setStartTime/setEndTime/setTimes/setDone keep the index in sync
+ * without the caller having to remember to update it.
+ */
+public final class DayIndex implements Task.Observer {
+    public final LocalDate date;
+    // Owning index, told about every change after this day is updated (may be null)
+    public final ScheduleIndex parent;
+    public final IntervalTree<Task> busy = new IntervalTree<>();
+    public final MinuteBitmap occupancy = new MinuteBitmap();
+    // Every task of the day that reports to this index (timed or not, done or not)
+    public int taskCount = 0;
+
+    public DayIndex(LocalDate date) {
+        this(date, null);
+    }
+
+    public DayIndex(LocalDate date, ScheduleIndex parent) {
+        this.date = date;
+        this.parent = parent;
+    }
+
+    public static int minuteOf(LocalTime t) {
+        return t.getHour() * 60 + t.getMinute();
+    }
+
+    // Only pending tasks with both bounds occupy time for overlap checks
+    public static boolean occupies(LocalTime start, LocalTime end, boolean done) {
+        return !done && start != null && end != null;
+    }
+
+    public synchronized void add(Task t) {
+        if (t.observer == this) return;
+        t.observer = this;
+        taskCount++;
+        occupy(t);
+    }
+
+    public synchronized void remove(Task t) {
+        if (t.observer != this) return;
+        t.observer = null;
+        taskCount--;
+        vacate(t);
+    }
+
+    @Override
+    public void taskChanged(Task t, LocalTime oldStart, LocalTime oldEnd, boolean oldDone) {
+        synchronized (this) {
+            vacate(t);
+            occupy(t);
+        }
+        if (parent != null) parent.dayChanged(date, t, oldStart, oldEnd, oldDone);
+    }
+
+    public void occupy(Task t) {
+        if (!occupies(t.getStartTime(), t.getEndTime(), t.isDone())) return;
+        int s = minuteOf(t.getStartTime()), e = minuteOf(t.getEndTime());
+        busy.add(t, s, e);
+        occupancy.set(s, e);
+    }
+
+    // Free the task's minutes, then re-mark whatever other tasks still cover them
+    public void vacate(Task t) {
+        IntervalTree.Node<Task> n = busy.nodes.get(t);
+        if (n == null) return;
+        busy.remove(t);
+        occupancy.clear(n.start, n.end);
+        List<Task> still = new ArrayList<>();
+        busy.collect(n.start, n.end, still);
+        for (Task o : still) {
+            occupancy.set(Math.max(n.start, minuteOf(o.getStartTime())), Math.min(n.end, minuteOf(o.getEndTime())));
+        }
+    }
+
+    /**
+     * True if [start, end) overlaps a pending task other than {@code exclude}.
+     */
+    public synchronized boolean hasOverlap(LocalTime start, LocalTime end, Task exclude) {
+        if (start == null || end == null) return false;
+        return busy.overlaps(minuteOf(start), minuteOf(end), exclude);
+    }
+
+    /**
+     * Earliest start in [from, to) where {@code durationMinutes} free minutes
+     * fit before {@code to}, or null when the window has no such gap.
+     */
+    public synchronized LocalTime findFreeSlot(int durationMinutes, LocalTime from, LocalTime to) {
+        int m = occupancy.findFreeRun(durationMinutes, minuteOf(from), minuteOf(to));
+        return m < 0 ? null : LocalTime.of(m / 60, m % 60);
+    }
+
+    public synchronized int busyMinutes(LocalTime from, LocalTime to) {
+        return occupancy.busyMinutes(minuteOf(from), minuteOf(to));
+    }
+
+    /**
+     * Every pending task overlapping [start, end), ordered by start time.
+     */
+    public synchronized List<Task> conflicts(LocalTime start, LocalTime end) {
+        List<Task> out = new ArrayList<>();
+        if (start != null && end != null) busy.collect(minuteOf(start), minuteOf(end), out);
+        return out;
+    }
+}
@@ -0,0 +1,139 @@
+import java.time.LocalTime;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * One day's tasks, kept ordered by start time as they are written.
+ *
+ * Timed tasks come first in start order; tasks without a start time follow
+ * in the order they were added. Ties keep insertion order, so a task's
+ * position is stable until its own start time changes. Readers (the
+ * timeline, the task lists, the reminder planner) iterate or index the list
+ * directly and never sort or stream it.
+ *
+ * {@link #add(Task)} inserts by binary search. Call {@link #reposition(Task)}
+ * after a task's start time changed; {@link ScheduleStore} does this for
+ * every edit it hears about. Positional inserts and replacement are not
+ * supported because the position is defined by the start time.
+ */
+public final class DayTasks extends AbstractList<Task> {
+
+    public static final class Entry {
+        public final Task task;
+        public final long seq;  // insertion order, the tie-breaker
+
+        public Entry(Task task, long seq) {
+            this.task = task;
+            this.seq = seq;
+        }
+    }
+
+    public final ArrayList<Entry> entries = new ArrayList<>();
+    public long nextSeq = 0;
+
+    public DayTasks() {
+    }
+
+    // Takes the tasks in their current order as insertion order
+    public DayTasks(Collection<Task> tasks) {
+        entries.ensureCapacity(tasks.size());
+        for (Task t : tasks) add(t);
+    }
+
+    @Override
+    public Task get(int index) {
+        return entries.get(index).task;
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public boolean add(Task t) {
+        insert(new Entry(t, nextSeq++));
+        return true;
+    }
+
+    @Override
+    public Task remove(int index) {
+        modCount++;
+        return entries.remove(index).task;
+    }
+
+    @Override
+    public void clear() {
+        modCount++;
+        entries.clear();
+    }
+
+    /**
+     * Position of a task by identity, or -1.
+     */
+    public int indexOfTask(Task t) {
+        for (int i = 0; i < entries.size(); i++) {
+            if (entries.get(i).task == t) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Move a task to where its (new) start time belongs, keeping its
+     * insertion order among equal start times. Returns false if absent.
+     */
+    public boolean reposition(Task t) {
+        int i = indexOfTask(t);
+        if (i < 0) return false;
+        Entry e = entries.get(i);
+        // Already in place: nothing to shift
+        if ((i == 0 || compare(entries.get(i - 1), e) <= 0)
+                && (i == entries.size() - 1 || compare(e, entries.get(i + 1)) <= 0)) {
+            return true;
+        }
+        entries.remove(i);
+        insert(e);
+        return true;
+    }
+
+    /**
+     * Number of leading tasks that have a start time.
+     */
+    public int timedCount() {
+        int lo = 0, hi = entries.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (entries.get(mid).task.getStartTime() != null) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    public void insert(Entry e) {
+        // Upper bound: after every entry that orders before or equal to e
+        int lo = 0, hi = entries.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(entries.get(mid), e) <= 0) lo = mid + 1;
+            else hi = mid;
+        }
+        modCount++;
+        entries.add(lo, e);
+    }
+
+    // Start time with untimed tasks last, then insertion order
+    public static int compare(Entry a, Entry b) {
+        LocalTime sa = a.task.getStartTime();
+        LocalTime sb = b.task.getStartTime();
+        if (sa != null && sb != null) {
+            int c = sa.compareTo(sb);
+            if (c != 0) return c;
+        } else if (sa != null) {
+            return -1;
+        } else if (sb != null) {
+            return 1;
+        }
+        return Long.compare(a.seq, b.seq);
+    }
+}
@@ -0,0 +1,377 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Launchable programs for Linux and macOS: executables on {@code PATH},
+ * freedesktop {@code .desktop} entries and, on macOS, {@code .app} bundles.
+ *
+ * One pass lists every source directory and reads each desktop file's
+ * {@code Name=} and {@code Exec=}. Entries go into a prefix trie under their
+ * lower-case name, each word of the name and the executable's file name, so
+ * "fire", "Firefox Web Browser" and "browser" all resolve at once.
+ *
+ * The result is cached on disk together with the modification time of every
+ * source directory. On the next start the cache is used as long as the
+ * directory list and all of those times are unchanged; otherwise everything
+ * is scanned again.
+ */
+public final class DesktopAppIndex {
+    public static final int FORMAT = 1;
+
+    public static final int KIND_DESKTOP = 0;
+    public static final int KIND_BUNDLE = 1;
+    public static final int KIND_PATH = 2;
+
+    /**
+     * One launchable program.
+     */
+    public static final class Entry {
+        public final String name;          // display name, or the file name for PATH executables
+        public final List<String> command; // argv to start it
+        public final int kind;
+
+        public Entry(String name, List<String> command, int kind) {
+            this.name = name;
+            this.command = command;
+            this.kind = kind;
+        }
+
+        @Override
+        public String toString() {
+            return name + " -> " + String.join(" ", command);
+        }
+    }
+
+    /**
+     * Character trie from lower-case keys to entries.
+     */
+    public static final class Trie {
+        public static final class Node {
+            public final TreeMap<Character, Node> children = new TreeMap<>();
+            public final List<Entry> exact = new ArrayList<>(1);
+        }
+
+        public final Node root = new Node();
+
+        public void put(String key, Entry e) {
+            Node n = root;
+            for (int i = 0; i < key.length(); i++) n = n.children.computeIfAbsent(key.charAt(i), c -> new Node());
+            if (!n.exact.contains(e)) n.exact.add(e);
+        }
+
+        public Node find(String prefix) {
+            Node n = root;
+            for (int i = 0; i < prefix.length() && n != null; i++) n = n.children.get(prefix.charAt(i));
+            return n;
+        }
+
+        // Entries under a node, shortest keys first (breadth-first)
+        public void collect(Node start, int limit, Set<Entry> out) {
+            ArrayDeque<Node> queue = new ArrayDeque<>();
+            queue.add(start);
+            while (!queue.isEmpty() && out.size() < limit) {
+                Node n = queue.poll();
+                for (Entry e : n.exact) {
+                    out.add(e);
+                    if (out.size() >= limit) return;
+                }
+                queue.addAll(n.children.values());
+            }
+        }
+    }
+
+    public final List<Path> pathDirs;
+    public final List<Path> desktopDirs;
+    public final List<Path> bundleDirs;
+    public final File file;
+
+    public volatile Trie trie = new Trie();
+    public volatile List<Entry> entries = Collections.emptyList();
+    public volatile boolean ready = false;
+    public volatile boolean fromCache = false;
+
+    public DesktopAppIndex(List<Path> pathDirs, List<Path> desktopDirs, List<Path> bundleDirs, File file) {
+        this.pathDirs = pathDirs;
+        this.desktopDirs = desktopDirs;
+        this.bundleDirs = bundleDirs;
+        this.file = file;
+    }
+
+    /**
+     * Sources of this machine: PATH, the XDG application folders and, on
+     * macOS, /Applications and ~/Applications.
+     */
+    public static DesktopAppIndex forThisSystem() {
+        List<Path> path = new ArrayList<>();
+        String env = System.getenv("PATH");
+        if (env != null) {
+            for (String p : env.split(File.pathSeparator)) {
+                if (!p.isEmpty()) path.add(Paths.get(p));
+            }
+        }
+        String home = System.getProperty("user.home");
+        List<Path> desktop = new ArrayList<>();
+        String dataHome = System.getenv("XDG_DATA_HOME");
+        desktop.add(Paths.get(dataHome != null && !dataHome.isEmpty() ? dataHome : home + "/.local/share", "applications"));
+        String dataDirs = System.getenv("XDG_DATA_DIRS");
+        for (String d : (dataDirs != null && !dataDirs.isEmpty() ? dataDirs : "/usr/local/share:/usr/share").split(":")) {
+            if (!d.isEmpty()) desktop.add(Paths.get(d, "applications"));
+        }
+        List<Path> bundles = new ArrayList<>();
+        if (System.getProperty("os.name").toLowerCase().contains("mac")) {
+            bundles.add(Paths.get("/Applications"));
+            bundles.add(Paths.get(home, "Applications"));
+        }
+        return new DesktopAppIndex(path, desktop, bundles, defaultFile());
+    }
+
+    public static File defaultFile() {
+        String home = System.getProperty("user.home");
+        File desktop = new File(home + File.separator + "Desktop");
+        return new File(desktop, "vamp_desktop_apps.bin");
+    }
+
+    public boolean isReady() { return ready; }
+
+    // --- lookups ---
+
+    /**
+     * Best entry for a name or partial name, or null. Exact names beat
+     * prefixes, desktop entries beat bundles beat bare PATH executables.
+     */
+    public Entry lookup(String query) {
+        List<Entry> r = suggest(query, 1);
+        return r.isEmpty() ? null : r.get(0);
+    }
+
+    /**
+     * Up to {@code limit} entries matching the query, best first.
+     */
+    public List<Entry> suggest(String query, int limit) {
+        ensureLoaded();
+        String q = query.trim().toLowerCase();
+        if (q.isEmpty()) return Collections.emptyList();
+        Trie.Node n = trie.find(q);
+        if (n == null) return Collections.emptyList();
+        Set<Entry> hits = new LinkedHashSet<>();
+        // Gather a few extra so ranking can pick the best of them
+        trie.collect(n, Math.max(limit * 4, 16), hits);
+        List<Entry> ranked = new ArrayList<>(hits);
+        ranked.sort(Comparator.comparingInt((Entry e) -> e.name.equalsIgnoreCase(q) || baseName(e).equals(q) ? 0 : 1)
+                .thenComparingInt(e -> e.kind)
+                .thenComparingInt(e -> e.name.length()));
+        return ranked.size() > limit ? new ArrayList<>(ranked.subList(0, limit)) : ranked;
+    }
+
+    public static String baseName(Entry e) {
+        String c = e.command.isEmpty() ? "" : e.command.get(0);
+        return c.substring(c.lastIndexOf('/') + 1).toLowerCase();
+    }
+
+    /**
+     * Load the cache or scan, once.
+     */
+    public synchronized void ensureLoaded() {
+        if (ready) return;
+        if (!load()) {
+            scan();
+            save();
+        }
+    }
+
+    // --- scanning ---
+
+    /**
+     * List every source directory and rebuild the trie.
+     */
+    public synchronized void scan() {
+        List<Entry> all = new ArrayList<>();
+        Set<String> seenExe = new HashSet<>();
+        for (Path d : desktopDirs) scanDesktopDir(d, all);
+        for (Path d : bundleDirs) {
+            try (DirectoryStream<Path> ds = Files.newDirectoryStream(d, "*.app")) {
+                for (Path p : ds) {
+                    String n = p.getFileName().toString();
+                    all.add(new Entry(n.substring(0, n.length() - 4), Arrays.asList("open", "-a", p.toString()), KIND_BUNDLE));
+                }
+            } catch (IOException | DirectoryIteratorException ex) {
+                // missing or unreadable folder
+            }
+        }
+        for (Path d : pathDirs) {
+            try (DirectoryStream<Path> ds = Files.newDirectoryStream(d)) {
+                for (Path p : ds) {
+                    String n = p.getFileName().toString();
+                    // Earlier PATH entries shadow later ones, as in the shell
+                    if (seenExe.contains(n) || !Files.isRegularFile(p) || !Files.isExecutable(p)) continue;
+                    seenExe.add(n);
+                    all.add(new Entry(n, Collections.singletonList(p.toString()), KIND_PATH));
+                }
+            } catch (IOException | DirectoryIteratorException ex) {
+                // missing or unreadable folder
+            }
+        }
+        install(all);
+        fromCache = false;
+    }
+
+    public void scanDesktopDir(Path dir, List<Entry> out) {
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, "*.desktop")) {
+            for (Path p : ds) {
+                Entry e = parseDesktopFile(p);
+                if (e != null) out.add(e);
+            }
+        } catch (IOException | DirectoryIteratorException ex) {
+            // missing or unreadable folder
+        }
+    }
+
+    /**
+     * Name and Exec of an application's [Desktop Entry] section, or null
+     * for hidden, non-application or malformed files.
+     */
+    public static Entry parseDesktopFile(Path p) {
+        String name = null, exec = null;
+        boolean inMain = false, app = true;
+        try (BufferedReader r = Files.newBufferedReader(p, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = r.readLine()) != null) {
+                line = line.trim();
+                if (line.startsWith("[")) {
+                    inMain = line.equals("[Desktop Entry]");
+                    continue;
+                }
+                if (!inMain) continue;
+                if (line.startsWith("Name=") && name == null) name = line.substring(5).trim();
+                else if (line.startsWith("Exec=")) exec = line.substring(5).trim();
+                else if (line.equals("Hidden=true") || line.equals("NoDisplay=true")) return null;
+                else if (line.startsWith("Type=")) app = line.substring(5).trim().equals("Application");
+            }
+        } catch (IOException | UncheckedIOException ex) {
+            return null;
+        }
+        if (!app || name == null || exec == null) return null;
+        List<String> argv = parseExec(exec);
+        return argv.isEmpty() ? null : new Entry(name, argv, KIND_DESKTOP);
+    }
+
+    // Split an Exec= value into argv, honouring double quotes and dropping %f-style field codes
+    public static List<String> parseExec(String exec) {
+        List<String> out = new ArrayList<>();
+        StringBuilder cur = new StringBuilder();
+        boolean quoted = false, any = false;
+        for (int i = 0; i < exec.length(); i++) {
+            char c = exec.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+                any = true;
+            } else if (c == '\\' && quoted && i + 1 < exec.length()) {
+                cur.append(exec.charAt(++i));
+            } else if (Character.isWhitespace(c) && !quoted) {
+                if (any || cur.length() > 0) out.add(cur.toString());
+                cur.setLength(0);
+                any = false;
+            } else {
+                cur.append(c);
+            }
+        }
+        if (any || cur.length() > 0) out.add(cur.toString());
+        List<String> argv = new ArrayList<>();
+        for (String a : out) {
+            if (a.length() == 2 && a.charAt(0) == '%') continue;
+            argv.add(a.replace("%%", "%"));
+        }
+        return argv;
+    }
+
+    public void install(List<Entry> all) {
+        Trie t = new Trie();
+        for (Entry e : all) {
+            String lower = e.name.toLowerCase();
+            t.put(lower, e);
+            for (String w : lower.split("[^\\p{Alnum}]+")) {
+                if (!w.isEmpty()) t.put(w, e);
+            }
+            t.put(baseName(e), e);
+        }
+        entries = Collections.unmodifiableList(all);
+        trie = t;
+        ready = true;
+    }
+
+    // --- disk cache ---
+
+    public List<Path> sourceDirs() {
+        List<Path> dirs = new ArrayList<>(desktopDirs);
+        dirs.addAll(bundleDirs);
+        dirs.addAll(pathDirs);
+        return dirs;
+    }
+
+    public static long mtime(Path d) {
+        try {
+            return Files.getLastModifiedTime(d).toMillis();
+        } catch (IOException ex) {
+            return -1; // missing: must stay missing for the cache to hold
+        }
+    }
+
+    /**
+     * Use the cached index if every source directory is unchanged.
+     */
+    public synchronized boolean load() {
+        if (file == null || !file.isFile()) return false;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != FORMAT) return false;
+            List<Path> dirs = sourceDirs();
+            if (in.readInt() != dirs.size()) return false;
+            for (Path d : dirs) {
+                if (!in.readUTF().equals(d.toString()) || in.readLong() != mtime(d)) return false;
+            }
+            int n = in.readInt();
+            List<Entry> all = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                String name = in.readUTF();
+                int kind = in.readByte();
+                int argc = in.readInt();
+                List<String> argv = new ArrayList<>(argc);
+                for (int j = 0; j < argc; j++) argv.add(in.readUTF());
+                all.add(new Entry(name, argv, kind));
+            }
+            install(all);
+            fromCache = true;
+            return true;
+        } catch (IOException | RuntimeException ex) {
+            return false;
+        }
+    }
+
+    public synchronized void save() {
+        if (file == null) return;
+        File tmp = new File(file.getPath() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+                out.writeInt(FORMAT);
+                List<Path> dirs = sourceDirs();
+                out.writeInt(dirs.size());
+                for (Path d : dirs) {
+                    out.writeUTF(d.toString());
+                    out.writeLong(mtime(d));
+                }
+                List<Entry> all = entries;
+                out.writeInt(all.size());
+                for (Entry e : all) {
+                    out.writeUTF(e.name);
+                    out.writeByte(e.kind);
+                    out.writeInt(e.command.size());
+                    for (String a : e.command) out.writeUTF(a);
+                }
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            tmp.delete();
+        }
+    }
+}
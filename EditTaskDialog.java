@@ -1,6 +1,5 @@
 import javax.swing.*;
 import java.awt.*;
-import java.awt.geom.RoundRectangle2D;
 import java.awt.event.*;
 import java.time.LocalTime;
 import java.time.format.DateTimeParseException;
@@ -10,13 +9,15 @@ public class EditTaskDialog extends JDialog {
     public static final long serialVersionUID = 1L;
 
     public final JFrame parent;
+    public transient final ScheduleStore store;
     public transient final Task task;
     public final java.time.LocalDate taskDate;
     public transient final Runnable onSave;
 
-    public EditTaskDialog(JFrame parent, Task task, java.time.LocalDate taskDate, Runnable onSave) {
+    public EditTaskDialog(JFrame parent, ScheduleStore store, Task task, java.time.LocalDate taskDate, Runnable onSave) {
         super((java.awt.Frame) null, "Edit Task", true);
         this.parent = parent;
+        this.store = store;
         this.task = task;
         this.taskDate = taskDate;
         this.onSave = onSave;
@@ -82,9 +83,13 @@ public class EditTaskDialog extends JDialog {
                     newStart = LocalTime.parse(s, tf);
                 }
                 int newDur = (int) durationSpinner.getValue();
-                task.setTitle(newTitle);
-                task.setStartTime(newStart);
-                task.setEndTime(newStart == null ? null : newStart.plusMinutes(newDur));
+                LocalTime start = newStart;
+                // Under the day's lock, so an overlap check on that day sees all or none of it
+                store.edit(taskDate, task, () -> {
+                    task.setTitle(newTitle);
+                    task.setStartTime(start);
+                    task.setEndTime(start == null ? null : start.plusMinutes(newDur));
+                });
                 if (onSave != null) onSave.run();
                 dispose();
             } catch (DateTimeParseException dtpe) {
@@ -120,19 +125,16 @@ public class EditTaskDialog extends JDialog {
             setBorderPainted(false);
             setFocusPainted(false);
             setCursor(new Cursor(Cursor.HAND_CURSOR));
+            setRolloverEnabled(true);
             putClientProperty("bgColor", bg);
         }
 
         @Override
         protected void paintComponent(Graphics g) {
-            Graphics2D g2d = (Graphics2D) g.create();
-            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
             Color bg = (Color) getClientProperty("bgColor");
             if (bg == null) bg = new Color(41,128,185);
-            GradientPaint gp = new GradientPaint(0, 0, bg.brighter(), 0, getHeight(), bg.darker());
-            g2d.setPaint(gp);
-            g2d.fill(new RoundRectangle2D.Double(0, 0, getWidth(), getHeight(), 12, 12));
-            g2d.dispose();
+            // Pre-rendered per size, state and colour
+            SurfaceCache.SHARED.paintButton(g, this, bg, 12);
             super.paintComponent(g);
         }
     }
@@ -0,0 +1,444 @@
+import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Index of launchable files under a set of root directories, for the app
+ * launcher.
+ *
+ * {@link #rebuild()} walks the roots with a fork/join task per directory, so
+ * subtrees are listed in parallel and idle workers steal whole subtrees. Each
+ * file is indexed under the lower-case tokens of its name and of the names of
+ * its enclosing directories ("Google/Chrome/Application/chrome.exe" is found
+ * by "chrome", "google chrome" and "goo"). Tokens sit in a sorted map, so a query is a handful of
+ * {@code subMap} range lookups rather than a disk walk.
+ *
+ * The index is saved to a file and loaded on the next start, so queries are
+ * answered immediately while a fresh walk runs in the background. Once
+ * watching is started, a {@link WatchService} keeps the index current as
+ * files are added or removed under watched directories; an overflow triggers
+ * a full rebuild. Watched changes are saved once the directories have been
+ * quiet for {@link #SAVE_DELAY_MILLIS}, so the next start need not walk again.
+ */
+public final class ExecutableIndex {
+    public static final int FORMAT = 1;
+    // Watching every directory of a large install tree would exhaust OS watch handles
+    public static final int DEFAULT_MAX_WATCHED_DIRS = 4096;
+    // How many enclosing directory names a file is also found by
+    public static final int KEY_DIR_LEVELS = 3;
+    // Quiet time after the last watched change before the index is saved
+    public static final long SAVE_DELAY_MILLIS = 5000;
+
+    /**
+     * One indexed file.
+     */
+    public static final class Entry {
+        public final String path;
+        public final String name;      // lower-case file name without extension
+        public final String dirName;   // lower-case parent directory name
+        public final String nameKey;   // name tokens joined by spaces, for ranking
+        public final String dirKey;
+        public final Set<String> keys;  // every token it is indexed under
+
+        public Entry(String path) {
+            this.path = path;
+            Path p = Paths.get(path);
+            String file = p.getFileName().toString().toLowerCase();
+            int dot = file.lastIndexOf('.');
+            this.name = dot > 0 ? file.substring(0, dot) : file;
+            Path parent = p.getParent();
+            this.dirName = parent != null && parent.getFileName() != null
+                    ? parent.getFileName().toString().toLowerCase() : "";
+            this.nameKey = String.join(" ", tokenize(name));
+            this.dirKey = String.join(" ", tokenize(dirName));
+            keys = new HashSet<>(tokenize(name));
+            // Vendor folders sit a few levels up ("Google/Chrome/Application/chrome.exe")
+            for (int i = 0; i < KEY_DIR_LEVELS && parent != null && parent.getFileName() != null; i++) {
+                keys.addAll(tokenize(parent.getFileName().toString()));
+                parent = parent.getParent();
+            }
+        }
+    }
+
+    public final List<Path> roots;
+    // Lower-case extensions (".exe"); empty means any file the OS marks executable
+    public final Set<String> extensions;
+    public final File file;
+    public final int maxWatchedDirs;
+
+    public final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    public final ConcurrentSkipListMap<String, Set<Entry>> tokens = new ConcurrentSkipListMap<>();
+    public final ForkJoinPool pool;
+    public volatile boolean ready = false;
+    public volatile long lastBuildMillis = -1;
+    public volatile int lastDirsVisited = 0;
+
+    // Null once closed; the watch thread and walkers use the instance they were started with
+    public volatile WatchService watcher;
+    public final Map<WatchKey, Path> watched = new ConcurrentHashMap<>();
+    public Thread watchThread;
+    // Set by close(); a refresh still running then never starts watching (guarded by this)
+    public boolean closed = false;
+
+    public ExecutableIndex(List<Path> roots, Set<String> extensions, File file) {
+        this(roots, extensions, file, ForkJoinPool.commonPool(), DEFAULT_MAX_WATCHED_DIRS);
+    }
+
+    public ExecutableIndex(List<Path> roots, Set<String> extensions, File file, ForkJoinPool pool, int maxWatchedDirs) {
+        this.roots = new ArrayList<>(roots);
+        this.extensions = new HashSet<>();
+        for (String e : extensions) this.extensions.add(e.toLowerCase());
+        this.file = file;
+        this.pool = pool;
+        this.maxWatchedDirs = maxWatchedDirs;
+    }
+
+    /**
+     * Index of Program Files, Program Files (x86), LOCALAPPDATA and APPDATA
+     * for .exe and .lnk files, saved next to the other assistant files.
+     */
+    public static ExecutableIndex forWindows() {
+        List<Path> roots = new ArrayList<>();
+        for (String env : new String[]{"ProgramFiles", "ProgramFiles(x86)", "LOCALAPPDATA", "APPDATA"}) {
+            String v = System.getenv(env);
+            if (v != null) roots.add(Paths.get(v));
+        }
+        return new ExecutableIndex(roots, new HashSet<>(Arrays.asList(".exe", ".lnk")), defaultFile());
+    }
+
+    public static File defaultFile() {
+        String home = System.getProperty("user.home");
+        File desktop = new File(home + File.separator + "Desktop");
+        return new File(desktop, "vamp_app_index.bin");
+    }
+
+    public boolean isReady() { return ready; }
+
+    public int size() { return entries.size(); }
+
+    // --- queries ---
+
+    /**
+     * Best match for a name, or null. Ranked: exact file name, then exact
+     * directory name, then file name prefix, then token prefix; shorter
+     * names win ties.
+     */
+    public String lookup(String query) {
+        List<String> r = find(query, 1);
+        return r.isEmpty() ? null : r.get(0);
+    }
+
+    /**
+     * Up to {@code limit} matching paths, best first.
+     */
+    public List<String> find(String query, int limit) {
+        List<String> words = tokenize(query);
+        if (words.isEmpty()) return Collections.emptyList();
+        String q = String.join(" ", words);
+        // Candidates must carry every query word as a token prefix
+        Set<Entry> candidates = null;
+        for (String w : words) {
+            Set<Entry> hits = new HashSet<>();
+            for (Set<Entry> s : tokens.subMap(w, true, w + Character.MAX_VALUE, true).values()) hits.addAll(s);
+            if (candidates == null) candidates = hits;
+            else candidates.retainAll(hits);
+            if (candidates.isEmpty()) return Collections.emptyList();
+        }
+        List<Entry> ranked = new ArrayList<>(candidates);
+        ranked.sort(Comparator.comparingInt((Entry e) -> rank(e, q))
+                .thenComparingInt(e -> e.name.length())
+                .thenComparing(e -> e.path));
+        List<String> out = new ArrayList<>();
+        for (int i = 0; i < ranked.size() && out.size() < limit; i++) out.add(ranked.get(i).path);
+        return out;
+    }
+
+    public static int rank(Entry e, String q) {
+        if (e.nameKey.equals(q)) return 0;
+        if (e.dirKey.equals(q)) return 1;
+        if (e.nameKey.startsWith(q)) return 2;
+        return 3;
+    }
+
+    // Lower-case alphanumeric runs: "Google Chrome" -> [google, chrome]
+    public static List<String> tokenize(String s) {
+        List<String> out = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= s.length(); i++) {
+            boolean alnum = i < s.length() && Character.isLetterOrDigit(s.charAt(i));
+            if (alnum && start < 0) start = i;
+            if (!alnum && start >= 0) {
+                out.add(s.substring(start, i).toLowerCase());
+                start = -1;
+            }
+        }
+        return out;
+    }
+
+    // --- building ---
+
+    public boolean accepts(Path p, BasicFileAttributes attrs) {
+        if (!attrs.isRegularFile()) return false;
+        if (extensions.isEmpty()) return Files.isExecutable(p);
+        String n = p.getFileName().toString().toLowerCase();
+        int dot = n.lastIndexOf('.');
+        return dot > 0 && extensions.contains(n.substring(dot));
+    }
+
+    public void put(String path) {
+        Entry e = new Entry(path);
+        Entry old = entries.put(path, e);
+        if (old != null) unlink(old);
+        for (String k : e.keys) tokens.computeIfAbsent(k, x -> ConcurrentHashMap.newKeySet()).add(e);
+    }
+
+    public void removePath(String path) {
+        Entry e = entries.remove(path);
+        if (e != null) unlink(e);
+    }
+
+    // Forget a file and, if the path was a directory, everything under it
+    public void removeTree(Path dir) {
+        String prefix = dir.toString() + dir.getFileSystem().getSeparator();
+        removePath(dir.toString());
+        for (String p : new ArrayList<>(entries.keySet())) {
+            if (p.startsWith(prefix)) removePath(p);
+        }
+    }
+
+    public void unlink(Entry e) {
+        for (String k : e.keys) {
+            Set<Entry> s = tokens.get(k);
+            if (s != null) s.remove(e);
+        }
+    }
+
+    /**
+     * Walk every root in parallel and replace the index with the result.
+     * Returns the number of files indexed.
+     */
+    public int rebuild() {
+        long t0 = System.nanoTime();
+        Set<String> found = ConcurrentHashMap.newKeySet();
+        AtomicInteger dirs = new AtomicInteger();
+        List<Walk> walks = new ArrayList<>();
+        for (Path r : roots) {
+            if (Files.isDirectory(r)) walks.add(new Walk(r, found, dirs));
+        }
+        for (Walk w : walks) pool.execute(w);
+        for (Walk w : walks) w.join();
+        // Drop files that went away, then add the new ones
+        for (String p : new ArrayList<>(entries.keySet())) {
+            if (!found.contains(p)) removePath(p);
+        }
+        for (String p : found) {
+            if (!entries.containsKey(p)) put(p);
+        }
+        tokens.values().removeIf(Set::isEmpty);
+        lastDirsVisited = dirs.get();
+        lastBuildMillis = (System.nanoTime() - t0) / 1_000_000;
+        ready = true;
+        return entries.size();
+    }
+
+    /**
+     * Lists one directory; each subdirectory becomes its own forked task.
+     */
+    public final class Walk extends RecursiveAction {
+        public static final long serialVersionUID = 1L;
+        public final Path dir;
+        public final Set<String> found;
+        public final AtomicInteger dirs;
+
+        public Walk(Path dir, Set<String> found, AtomicInteger dirs) {
+            this.dir = dir;
+            this.found = found;
+            this.dirs = dirs;
+        }
+
+        @Override
+        protected void compute() {
+            dirs.incrementAndGet();
+            List<Walk> subs = new ArrayList<>();
+            try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir)) {
+                for (Path p : ds) {
+                    BasicFileAttributes a;
+                    try {
+                        a = Files.readAttributes(p, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    } catch (IOException ex) {
+                        continue;
+                    }
+                    if (a.isDirectory()) subs.add(new Walk(p, found, dirs));
+                    else if (accepts(p, a)) found.add(p.toString());
+                }
+            } catch (IOException | SecurityException ex) {
+                // skip unreadable directories
+            }
+            invokeAll(subs);
+        }
+    }
+
+    // --- persistence ---
+
+    /**
+     * Load a saved index. Returns false if there was none or it was unreadable.
+     */
+    public boolean load() {
+        if (file == null || !file.isFile()) return false;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != FORMAT) return false;
+            int n = in.readInt();
+            for (int i = 0; i < n; i++) put(in.readUTF());
+            ready = true;
+            return true;
+        } catch (IOException | RuntimeException ex) {
+            return false;
+        }
+    }
+
+    public void save() throws IOException {
+        if (file == null) return;
+        File tmp = new File(file.getPath() + ".tmp");
+        List<String> paths = new ArrayList<>(entries.keySet());
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(FORMAT);
+            out.writeInt(paths.size());
+            for (String p : paths) out.writeUTF(p);
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Load the saved index, then rebuild, save and start watching. Meant to
+     * run once on a background thread.
+     */
+    public void refresh() {
+        load();
+        rebuild();
+        saveQuietly();
+        startWatching();
+    }
+
+    // --- watching ---
+
+    public synchronized void startWatching() {
+        if (closed || watcher != null || roots.isEmpty()) return;
+        WatchService ws;
+        try {
+            ws = roots.get(0).getFileSystem().newWatchService();
+        } catch (IOException ex) {
+            return;
+        }
+        watcher = ws;
+        for (Path r : roots) registerTree(ws, r);
+        watchThread = new Thread(() -> watchLoop(ws), "VA-Index-Watcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+    }
+
+    public void registerTree(WatchService ws, Path root) {
+        if (ws == null) return;
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path d, BasicFileAttributes a) {
+                    if (watched.size() >= maxWatchedDirs) return FileVisitResult.TERMINATE;
+                    try {
+                        watched.put(d.register(ws, StandardWatchEventKinds.ENTRY_CREATE,
+                                StandardWatchEventKinds.ENTRY_DELETE), d);
+                    } catch (IOException ex) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    } catch (ClosedWatchServiceException ex) {
+                        // closed while walking: stop quietly
+                        return FileVisitResult.TERMINATE;
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path f, IOException ex) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException ex) {
+            // ignore: unwatched parts are picked up by the next rebuild
+        }
+    }
+
+    // Blocks while nothing changes; after a change it waits at most SAVE_DELAY_MILLIS to save it
+    public void watchLoop(WatchService ws) {
+        boolean unsaved = false;
+        while (true) {
+            WatchKey key;
+            try {
+                key = unsaved ? ws.poll(SAVE_DELAY_MILLIS, TimeUnit.MILLISECONDS) : ws.take();
+            } catch (InterruptedException | ClosedWatchServiceException ex) {
+                if (unsaved) saveQuietly();
+                return;
+            }
+            if (key == null) {
+                // Quiet since the last change
+                saveQuietly();
+                unsaved = false;
+                continue;
+            }
+            unsaved = true;
+            Path dir = watched.get(key);
+            for (WatchEvent<?> ev : key.pollEvents()) {
+                if (ev.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    rebuild();
+                    continue;
+                }
+                if (dir == null) continue;
+                Path p = dir.resolve((Path) ev.context());
+                if (ev.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                    removeTree(p);
+                } else {
+                    added(ws, p);
+                }
+            }
+            if (!key.reset()) watched.remove(key);
+        }
+    }
+
+    // A new file is indexed; a new directory is walked and watched
+    public void added(WatchService ws, Path p) {
+        try {
+            BasicFileAttributes a = Files.readAttributes(p, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            if (a.isDirectory()) {
+                Set<String> found = ConcurrentHashMap.newKeySet();
+                pool.invoke(new Walk(p, found, new AtomicInteger()));
+                for (String f : found) put(f);
+                registerTree(ws, p);
+            } else if (accepts(p, a)) {
+                put(p.toString());
+            }
+        } catch (IOException ex) {
+            // gone again before we looked
+        }
+    }
+
+    public void saveQuietly() {
+        try {
+            save();
+        } catch (IOException ex) {
+            // ignore: the next start walks again
+        }
+    }
+
+    public synchronized void close() {
+        closed = true;
+        WatchService ws = watcher;
+        if (ws == null) return;
+        watcher = null;
+        try {
+            ws.close();
+        } catch (IOException ex) {
+            // ignore
+        }
+        watched.clear();
+    }
+}
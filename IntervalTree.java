@@ -0,0 +1,183 @@
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Augmented interval tree over half-open minute ranges [start, end).
+ *
+ * Implemented as a treap ordered by start minute, where every node also keeps
+ * the largest end minute in its subtree. That lets overlap queries skip any
+ * subtree whose intervals all finish before the query starts, so "does
+ * [start, end) overlap anything?" is O(log n) and listing all k conflicts is
+ * O(log n + k). Values are tracked by identity so they can be removed without
+ * knowing their interval.
+ */
+public final class IntervalTree<T> {
+
+    public static final class Node<T> {
+        public final T value;
+        public final int start;
+        public final int end;
+        public final long seq;      // tie-breaker so equal intervals still have a total order
+        public final int priority;
+        public int maxEnd;
+        public Node<T> left;
+        public Node<T> right;
+
+        public Node(T value, int start, int end, long seq, int priority) {
+            this.value = value;
+            this.start = start;
+            this.end = end;
+            this.seq = seq;
+            this.priority = priority;
+            this.maxEnd = end;
+        }
+    }
+
+    public Node<T> root;
+    public final Map<T, Node<T>> nodes = new IdentityHashMap<>();
+    public long nextSeq = 0;
+    public int seed = 0x2545F491;
+
+    public int size() { return nodes.size(); }
+
+    public boolean contains(T value) { return nodes.containsKey(value); }
+
+    /**
+     * Insert a value with interval [start, end). Re-inserting a value replaces
+     * its previous interval. Empty intervals are ignored.
+     */
+    public void add(T value, int start, int end) {
+        remove(value);
+        if (end <= start) return;
+        Node<T> n = new Node<>(value, start, end, nextSeq++, nextPriority());
+        nodes.put(value, n);
+        root = insert(root, n);
+    }
+
+    public boolean remove(T value) {
+        Node<T> n = nodes.remove(value);
+        if (n == null) return false;
+        root = delete(root, n);
+        return true;
+    }
+
+    public void clear() {
+        root = null;
+        nodes.clear();
+    }
+
+    /**
+     * True if any stored interval other than {@code exclude} overlaps [start, end).
+     */
+    public boolean overlaps(int start, int end, T exclude) {
+        return end > start && firstOverlap(root, start, end, exclude) != null;
+    }
+
+    /**
+     * Add every stored value overlapping [start, end) to {@code out}, in start order.
+     */
+    public void collect(int start, int end, List<T> out) {
+        if (end > start) collect(root, start, end, out);
+    }
+
+    // --- internals ---
+
+    public int nextPriority() {
+        // xorshift: cheap, deterministic, good enough to keep the treap balanced
+        int x = seed;
+        x ^= x << 13;
+        x ^= x >>> 17;
+        x ^= x << 5;
+        seed = x;
+        return x;
+    }
+
+    public static <T> int compare(Node<T> a, Node<T> b) {
+        if (a.start != b.start) return Integer.compare(a.start, b.start);
+        return Long.compare(a.seq, b.seq);
+    }
+
+    public static <T> void update(Node<T> n) {
+        int m = n.end;
+        if (n.left != null && n.left.maxEnd > m) m = n.left.maxEnd;
+        if (n.right != null && n.right.maxEnd > m) m = n.right.maxEnd;
+        n.maxEnd = m;
+    }
+
+    public static <T> Node<T> rotateRight(Node<T> n) {
+        Node<T> l = n.left;
+        n.left = l.right;
+        l.right = n;
+        update(n);
+        update(l);
+        return l;
+    }
+
+    public static <T> Node<T> rotateLeft(Node<T> n) {
+        Node<T> r = n.right;
+        n.right = r.left;
+        r.left = n;
+        update(n);
+        update(r);
+        return r;
+    }
+
+    public static <T> Node<T> insert(Node<T> root, Node<T> n) {
+        if (root == null) return n;
+        if (compare(n, root) < 0) {
+            root.left = insert(root.left, n);
+            if (root.left.priority > root.priority) return rotateRight(root);
+        } else {
+            root.right = insert(root.right, n);
+            if (root.right.priority > root.priority) return rotateLeft(root);
+        }
+        update(root);
+        return root;
+    }
+
+    public static <T> Node<T> delete(Node<T> root, Node<T> n) {
+        if (root == null) return null;
+        if (root == n) {
+            if (root.left == null) return root.right;
+            if (root.right == null) return root.left;
+            if (root.left.priority > root.right.priority) {
+                root = rotateRight(root);
+                root.right = delete(root.right, n);
+            } else {
+                root = rotateLeft(root);
+                root.left = delete(root.left, n);
+            }
+        } else if (compare(n, root) < 0) {
+            root.left = delete(root.left, n);
+        } else {
+            root.right = delete(root.right, n);
+        }
+        update(root);
+        return root;
+    }
+
+    public static <T> Node<T> firstOverlap(Node<T> n, int start, int end, T exclude) {
+        while (n != null) {
+            // Nothing in this subtree ends after the query starts
+            if (n.maxEnd <= start) return null;
+            if (n.left != null && n.left.maxEnd > start) {
+                Node<T> hit = firstOverlap(n.left, start, end, exclude);
+                if (hit != null) return hit;
+            }
+            // Everything from here on starts at or after n.start
+            if (n.start >= end) return null;
+            if (n.end > start && n.value != exclude) return n;
+            n = n.right;
+        }
+        return null;
+    }
+
+    public static <T> void collect(Node<T> n, int start, int end, List<T> out) {
+        if (n == null || n.maxEnd <= start) return;
+        collect(n.left, start, end, out);
+        if (n.start >= end) return;
+        if (n.end > start) out.add(n.value);
+        collect(n.right, start, end, out);
+    }
+}
@@ -0,0 +1,80 @@
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background compactor for a {@link ScheduleJournal}.
+ *
+ * Wakes on a fixed period on its own low-priority daemon thread and compacts
+ * the journal once enough new bytes have piled up. Compaction reads the
+ * journal file rather than the live schedules map, so it never needs the EDT
+ * or the reminder thread and never blocks them.
+ */
+public final class JournalCompactor {
+    public static final long DEFAULT_PERIOD_SECONDS = 10 * 60;
+    // Compact once the tail is worth more than ~64 KB (a few thousand records)
+    public static final long DEFAULT_THRESHOLD_BYTES = 64 * 1024;
+
+    public final ScheduleJournal journal;
+    public final long thresholdBytes;
+    public final ScheduledExecutorService executor;
+    public ScheduledFuture<?> periodic;
+    public volatile int compactions = 0;
+
+    public JournalCompactor(ScheduleJournal journal) {
+        this(journal, DEFAULT_THRESHOLD_BYTES);
+    }
+
+    public JournalCompactor(ScheduleJournal journal, long thresholdBytes) {
+        this.journal = journal;
+        this.thresholdBytes = thresholdBytes;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "VA-Journal-Compactor");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+    }
+
+    /**
+     * Start periodic checks. The first check runs shortly after startup so a
+     * long history left by an older build is folded in early.
+     */
+    public void start() {
+        start(30, DEFAULT_PERIOD_SECONDS);
+    }
+
+    public synchronized void start(long initialDelaySeconds, long periodSeconds) {
+        if (periodic != null) return;
+        periodic = executor.scheduleWithFixedDelay(this::compactIfNeeded,
+                initialDelaySeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    public void compactIfNeeded() {
+        if (journal.uncompactedBytes() < thresholdBytes) return;
+        try {
+            journal.compact();
+            compactions++;
+        } catch (IOException | RuntimeException ex) {
+            // leave the journal as is; it stays complete and the next run retries
+            System.out.println("[Journal Compactor] " + ex.getMessage());
+        }
+    }
+
+    public int getCompactions() { return compactions; }
+
+    /**
+     * Stop the compactor and wait for a compaction in progress to finish so the
+     * journal is not closed underneath it.
+     */
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,206 @@
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Persisted record of what the user launched and how each name resolved.
+ *
+ * For every requested name it keeps the command that last started it, how
+ * often that worked or failed, and the times of the latest launches. A name
+ * that resolved before is started straight from its cached command (after a
+ * cheap check that the program file still exists), skipping the candidate
+ * lists and slow fallbacks of the launcher.
+ *
+ * Names are ranked by frecency, as browsers rank history: each of the last
+ * {@link #SAMPLES} launches scores by age (today counts most, last quarter
+ * little), scaled up by how many launches there were in total. The launcher
+ * dialog offers the top names as the user types.
+ */
+public final class LaunchHistory {
+    public static final int FORMAT = 1;
+    public static final int SAMPLES = 10;
+    public static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    /**
+     * History of one requested name.
+     */
+    public static final class Record {
+        public final String key;      // normalized name as typed
+        public String label;          // name as last typed, for suggestions
+        public List<String> command;  // argv that last started it, or null
+        public int successes;
+        public int failures;
+        public long lastAttempt;
+        public final long[] recent = new long[SAMPLES];  // ring of launch times, 0 = empty
+        public int next;
+
+        public Record(String key, String label) {
+            this.key = key;
+            this.label = label;
+        }
+
+        public void visit(long now) {
+            recent[next] = now;
+            next = (next + 1) % SAMPLES;
+        }
+
+        public double frecency(long now) {
+            double sum = 0;
+            int sampled = 0;
+            for (long t : recent) {
+                if (t == 0) continue;
+                sampled++;
+                sum += weight(now - t);
+            }
+            return sampled == 0 ? 0 : sum / sampled * successes;
+        }
+    }
+
+    public static int weight(long ageMillis) {
+        long days = ageMillis / DAY_MILLIS;
+        if (days < 1) return 100;
+        if (days < 4) return 80;
+        if (days < 14) return 60;
+        if (days < 31) return 40;
+        if (days < 90) return 20;
+        return 10;
+    }
+
+    public static String normalize(String name) {
+        return name.trim().toLowerCase().replaceAll("\\s+", " ");
+    }
+
+    public final File file;
+    // Guarded by this
+    public final Map<String, Record> records = new HashMap<>();
+
+    public LaunchHistory(File file) {
+        this.file = file;
+    }
+
+    public static File defaultFile() {
+        String home = System.getProperty("user.home");
+        File desktop = new File(home + File.separator + "Desktop");
+        return new File(desktop, "vamp_launch_history.bin");
+    }
+
+    /**
+     * The command that last launched this name, if it still looks runnable:
+     * an absolute program path must still exist. Null otherwise.
+     */
+    public synchronized List<String> cachedCommand(String name) {
+        Record r = records.get(normalize(name));
+        if (r == null || r.command == null || r.command.isEmpty()) return null;
+        String program = r.command.get(0);
+        if (new File(program).isAbsolute() && !new File(program).exists()) return null;
+        return new ArrayList<>(r.command);
+    }
+
+    /**
+     * Note a successful launch and the command that did it (null when the
+     * launch went through a fallback that should not be replayed).
+     */
+    public synchronized void recordSuccess(String name, List<String> command) {
+        long now = System.currentTimeMillis();
+        Record r = record(name);
+        if (command != null) r.command = new ArrayList<>(command);
+        r.successes++;
+        r.lastAttempt = now;
+        r.visit(now);
+        save();
+    }
+
+    /**
+     * Note a failed launch; a cached command that failed is forgotten.
+     */
+    public synchronized void recordFailure(String name) {
+        Record r = record(name);
+        r.command = null;
+        r.failures++;
+        r.lastAttempt = System.currentTimeMillis();
+        save();
+    }
+
+    public Record record(String name) {
+        String key = normalize(name);
+        Record r = records.computeIfAbsent(key, k -> new Record(k, name.trim()));
+        r.label = name.trim();
+        return r;
+    }
+
+    /**
+     * Up to {@code limit} previously launched names starting with (or having
+     * a word starting with) the prefix, highest frecency first. An empty
+     * prefix lists the overall favourites.
+     */
+    public synchronized List<String> suggest(String prefix, int limit) {
+        String p = normalize(prefix);
+        long now = System.currentTimeMillis();
+        List<Record> hits = new ArrayList<>();
+        for (Record r : records.values()) {
+            if (r.successes == 0) continue;
+            if (p.isEmpty() || r.key.startsWith(p) || r.key.contains(" " + p)) hits.add(r);
+        }
+        hits.sort(Comparator.comparingDouble((Record r) -> -r.frecency(now)).thenComparing(r -> r.key));
+        List<String> out = new ArrayList<>();
+        for (int i = 0; i < hits.size() && i < limit; i++) out.add(hits.get(i).label);
+        return out;
+    }
+
+    // --- persistence ---
+
+    public synchronized boolean load() {
+        if (file == null || !file.isFile()) return false;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != FORMAT) return false;
+            int n = in.readInt();
+            for (int i = 0; i < n; i++) {
+                Record r = new Record(in.readUTF(), in.readUTF());
+                int argc = in.readInt();
+                if (argc >= 0) {
+                    r.command = new ArrayList<>(argc);
+                    for (int j = 0; j < argc; j++) r.command.add(in.readUTF());
+                }
+                r.successes = in.readInt();
+                r.failures = in.readInt();
+                r.lastAttempt = in.readLong();
+                for (int j = 0; j < SAMPLES; j++) r.recent[j] = in.readLong();
+                r.next = in.readInt();
+                // Launches recorded before the load finished win
+                records.putIfAbsent(r.key, r);
+            }
+            return true;
+        } catch (IOException | RuntimeException ex) {
+            return false;
+        }
+    }
+
+    // Caller holds this
+    public void save() {
+        if (file == null) return;
+        File tmp = new File(file.getPath() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+                out.writeInt(FORMAT);
+                out.writeInt(records.size());
+                for (Record r : records.values()) {
+                    out.writeUTF(r.key);
+                    out.writeUTF(r.label);
+                    out.writeInt(r.command == null ? -1 : r.command.size());
+                    if (r.command != null) {
+                        for (String a : r.command) out.writeUTF(a);
+                    }
+                    out.writeInt(r.successes);
+                    out.writeInt(r.failures);
+                    out.writeLong(r.lastAttempt);
+                    for (long t : r.recent) out.writeLong(t);
+                    out.writeInt(r.next);
+                }
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            tmp.delete();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+import java.util.Arrays;
+
+/**
+ * Open-addressing set of primitive longs (linear probing, no boxing).
+ *
+ * Slot value 0 marks an empty slot, so the key 0 is tracked by a separate flag.
+ * Removal uses backward-shift deletion, so lookups never wade through tombstones.
+ */
+public final class LongHashSet {
+    public long[] slots;
+    public int size;
+    public boolean hasZero;
+
+    public LongHashSet() {
+        this(16);
+    }
+
+    public LongHashSet(int expected) {
+        int cap = 16;
+        while (cap < expected * 2) cap <<= 1;
+        slots = new long[cap];
+    }
+
+    public int size() { return size + (hasZero ? 1 : 0); }
+
+    public boolean isEmpty() { return size() == 0; }
+
+    public boolean contains(long key) {
+        if (key == 0) return hasZero;
+        int mask = slots.length - 1;
+        for (int i = slot(key, mask); ; i = (i + 1) & mask) {
+            long k = slots[i];
+            if (k == 0) return false;
+            if (k == key) return true;
+        }
+    }
+
+    /**
+     * Returns true if the key was not present.
+     */
+    public boolean add(long key) {
+        if (key == 0) {
+            boolean added = !hasZero;
+            hasZero = true;
+            return added;
+        }
+        int mask = slots.length - 1;
+        int i = slot(key, mask);
+        while (slots[i] != 0) {
+            if (slots[i] == key) return false;
+            i = (i + 1) & mask;
+        }
+        slots[i] = key;
+        if (++size * 2 > slots.length) grow();
+        return true;
+    }
+
+    public boolean remove(long key) {
+        if (key == 0) {
+            boolean removed = hasZero;
+            hasZero = false;
+            return removed;
+        }
+        int mask = slots.length - 1;
+        int i = slot(key, mask);
+        while (slots[i] != key) {
+            if (slots[i] == 0) return false;
+            i = (i + 1) & mask;
+        }
+        // Shift later members of the probe run back into the hole
+        int hole = i;
+        for (int j = (hole + 1) & mask; slots[j] != 0; j = (j + 1) & mask) {
+            int home = slot(slots[j], mask);
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                slots[hole] = slots[j];
+                hole = j;
+            }
+        }
+        slots[hole] = 0;
+        size--;
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(slots, 0);
+        size = 0;
+        hasZero = false;
+    }
+
+    public void grow() {
+        long[] old = slots;
+        slots = new long[old.length * 2];
+        size = 0;
+        for (long k : old) {
+            if (k != 0) add(k);
+        }
+    }
+
+    public static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
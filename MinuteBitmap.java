@@ -0,0 +1,120 @@
+/**
+ * One bit per minute of the day (1440 bits in 23 longs); a set bit means busy.
+ *
+ * Range updates and free-run searches work a 64-bit word at a time, so
+ * finding a gap of a given length costs at most one pass over 23 words no
+ * matter how many tasks the day has.
+ */
+public final class MinuteBitmap {
+    public static final int MINUTES = 24 * 60;
+    public static final int WORDS = (MINUTES + 63) / 64;
+
+    public final long[] words = new long[WORDS];
+
+    /**
+     * Mark [from, to) busy.
+     */
+    public void set(int from, int to) {
+        from = Math.max(0, from);
+        to = Math.min(MINUTES, to);
+        if (from >= to) return;
+        int fw = from >>> 6, tw = (to - 1) >>> 6;
+        long first = -1L << from;            // bits >= from within its word
+        long last = -1L >>> (63 - ((to - 1) & 63)); // bits <= to-1 within its word
+        if (fw == tw) {
+            words[fw] |= first & last;
+            return;
+        }
+        words[fw] |= first;
+        for (int w = fw + 1; w < tw; w++) words[w] = -1L;
+        words[tw] |= last;
+    }
+
+    /**
+     * Mark [from, to) free.
+     */
+    public void clear(int from, int to) {
+        from = Math.max(0, from);
+        to = Math.min(MINUTES, to);
+        if (from >= to) return;
+        int fw = from >>> 6, tw = (to - 1) >>> 6;
+        long first = -1L << from;
+        long last = -1L >>> (63 - ((to - 1) & 63));
+        if (fw == tw) {
+            words[fw] &= ~(first & last);
+            return;
+        }
+        words[fw] &= ~first;
+        for (int w = fw + 1; w < tw; w++) words[w] = 0L;
+        words[tw] &= ~last;
+    }
+
+    public boolean isBusy(int minute) {
+        return (words[minute >>> 6] & (1L << minute)) != 0;
+    }
+
+    /**
+     * Busy minutes within [from, to).
+     */
+    public int busyMinutes(int from, int to) {
+        from = Math.max(0, from);
+        to = Math.min(MINUTES, to);
+        if (from >= to) return 0;
+        int fw = from >>> 6, tw = (to - 1) >>> 6;
+        long first = -1L << from;
+        long last = -1L >>> (63 - ((to - 1) & 63));
+        if (fw == tw) return Long.bitCount(words[fw] & first & last);
+        int n = Long.bitCount(words[fw] & first) + Long.bitCount(words[tw] & last);
+        for (int w = fw + 1; w < tw; w++) n += Long.bitCount(words[w]);
+        return n;
+    }
+
+    /**
+     * First minute m in [from, to) with [m, m + length) entirely free and
+     * inside the window, or -1 if no such run exists.
+     */
+    public int findFreeRun(int length, int from, int to) {
+        from = Math.max(0, from);
+        to = Math.min(MINUTES, to);
+        if (length <= 0) return from < to ? from : -1;
+        int pos = from;
+        while (pos + length <= to) {
+            int free = nextFree(pos, to);
+            if (free < 0 || free + length > to) return -1;
+            int busy = nextBusy(free, to);
+            if (busy - free >= length) return free;
+            pos = busy;
+        }
+        return -1;
+    }
+
+    // First free minute in [from, to), or -1
+    public int nextFree(int from, int to) {
+        if (from >= to) return -1;
+        int w = from >>> 6;
+        long bits = ~words[w] & (-1L << from);
+        while (true) {
+            if (bits != 0) {
+                int m = (w << 6) + Long.numberOfTrailingZeros(bits);
+                return m < to ? m : -1;
+            }
+            if (++w >= WORDS || (w << 6) >= to) return -1;
+            bits = ~words[w];
+        }
+    }
+
+    // First busy minute in [from, to), or to when the rest of the window is free
+    public int nextBusy(int from, int to) {
+        if (from >= to) return to;
+        int w = from >>> 6;
+        long bits = words[w] & (-1L << from);
+        while (true) {
+            if (bits != 0) {
+                int m = (w << 6) + Long.numberOfTrailingZeros(bits);
+                return Math.min(m, to);
+            }
+            if (++w >= WORDS || (w << 6) >= to) return to;
+            bits = words[w];
+        }
+    }
+}
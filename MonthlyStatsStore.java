@@ -0,0 +1,174 @@
+import java.io.*;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+/**
+ * Binary per-user monthly stats with one fixed-offset slot per month.
+ *
+ * The file is memory-mapped, so adjusting a month's counters is an O(1)
+ * in-place write to its slot instead of rewriting the whole stats file.
+ * Slots are keyed by {@code year * 12 + (month - 1)} and cover the years the
+ * date pickers allow (2000-2100); dates outside that range are not tracked.
+ *
+ * File layout: header {int MAGIC, short VERSION, short reserved, int baseKey,
+ * int slotCount}, then slotCount slots of {int present, int completed, int total}.
+ *
+ * The old text format ("YYYY-MM completed total" per line) is still supported
+ * through {@link #importText(File)} and {@link #exportText(File)}.
+ */
+public final class MonthlyStatsStore implements Closeable {
+    public static final int MAGIC = 0x56414D4D; // "VAMM"
+    public static final short VERSION = 1;
+    public static final int HEADER_BYTES = 16;
+    public static final int SLOT_BYTES = 12;
+    public static final int FIRST_YEAR = 2000;
+    public static final int LAST_YEAR = 2100;
+    public static final int BASE_KEY = FIRST_YEAR * 12;
+    public static final int SLOT_COUNT = (LAST_YEAR - FIRST_YEAR + 1) * 12;
+
+    public final File file;
+    public final FileChannel channel;
+    public final MappedByteBuffer map;
+    public final boolean created;
+
+    /**
+     * Open the store, creating and sizing the file if it does not exist yet.
+     */
+    public static MonthlyStatsStore open(File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists()) parent.mkdirs();
+        boolean created = !file.exists() || file.length() == 0;
+        FileChannel ch = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long size = HEADER_BYTES + (long) SLOT_COUNT * SLOT_BYTES;
+            MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            map.order(ByteOrder.BIG_ENDIAN);
+            if (created) {
+                map.putInt(0, MAGIC);
+                map.putShort(4, VERSION);
+                map.putShort(6, (short) 0);
+                map.putInt(8, BASE_KEY);
+                map.putInt(12, SLOT_COUNT);
+                map.force();
+            } else if (map.getInt(0) != MAGIC || map.getShort(4) != VERSION
+                    || map.getInt(8) != BASE_KEY || map.getInt(12) != SLOT_COUNT) {
+                throw new IOException("Not a monthly stats file: " + file);
+            }
+            return new MonthlyStatsStore(file, ch, map, created);
+        } catch (IOException | RuntimeException ex) {
+            ch.close();
+            throw ex;
+        }
+    }
+
+    public MonthlyStatsStore(File file, FileChannel channel, MappedByteBuffer map, boolean created) {
+        this.file = file;
+        this.channel = channel;
+        this.map = map;
+        this.created = created;
+    }
+
+    /**
+     * True when open() had to create the file (nothing stored yet).
+     */
+    public boolean wasCreated() { return created; }
+
+    public static int key(int year, int month) { return year * 12 + (month - 1); }
+
+    // Byte offset of a month's slot, or -1 when the month is out of range
+    public static int offset(int year, int month) {
+        int idx = key(year, month) - BASE_KEY;
+        if (month < 1 || month > 12 || idx < 0 || idx >= SLOT_COUNT) return -1;
+        return HEADER_BYTES + idx * SLOT_BYTES;
+    }
+
+    /**
+     * Return {completed, total} for the month, or null when nothing is stored.
+     */
+    public synchronized int[] get(int year, int month) {
+        int off = offset(year, month);
+        if (off < 0 || map.getInt(off) == 0) return null;
+        return new int[]{map.getInt(off + 4), map.getInt(off + 8)};
+    }
+
+    public int[] get(LocalDate date) { return get(date.getYear(), date.getMonthValue()); }
+
+    public synchronized void put(int year, int month, int completed, int total) {
+        int off = offset(year, month);
+        if (off < 0) return;
+        map.putInt(off + 4, Math.max(0, completed));
+        map.putInt(off + 8, Math.max(0, total));
+        map.putInt(off, 1);
+    }
+
+    /**
+     * Apply deltas to a month in place (clamped at zero) and return the new
+     * {completed, total}, or null when the month is out of range.
+     */
+    public synchronized int[] adjust(int year, int month, int deltaCompleted, int deltaTotal) {
+        int off = offset(year, month);
+        if (off < 0) return null;
+        boolean present = map.getInt(off) != 0;
+        int completed = Math.max(0, (present ? map.getInt(off + 4) : 0) + deltaCompleted);
+        int total = Math.max(0, (present ? map.getInt(off + 8) : 0) + deltaTotal);
+        map.putInt(off + 4, completed);
+        map.putInt(off + 8, total);
+        map.putInt(off, 1);
+        return new int[]{completed, total};
+    }
+
+    /**
+     * Push dirty pages to disk. Updates are already visible in the OS page
+     * cache, so this is only needed for durability against power loss.
+     */
+    public synchronized void force() {
+        map.force();
+    }
+
+    /**
+     * Load months from the legacy text format, overwriting stored slots.
+     */
+    public void importText(File text) throws IOException {
+        try (BufferedReader r = new BufferedReader(new FileReader(text))) {
+            String line;
+            while ((line = r.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty()) continue;
+                String[] parts = line.split("\\s+");
+                if (parts.length < 3) continue;
+                String[] ym = parts[0].split("-");
+                if (ym.length != 2) continue;
+                try {
+                    put(Integer.parseInt(ym[0]), Integer.parseInt(ym[1]),
+                            Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+                } catch (NumberFormatException ignored) {
+                    // skip malformed lines
+                }
+            }
+        }
+    }
+
+    /**
+     * Write every stored month in the legacy text format.
+     */
+    public synchronized void exportText(File text) throws IOException {
+        try (PrintWriter w = new PrintWriter(new FileWriter(text))) {
+            for (int idx = 0; idx < SLOT_COUNT; idx++) {
+                int off = HEADER_BYTES + idx * SLOT_BYTES;
+                if (map.getInt(off) == 0) continue;
+                int key = BASE_KEY + idx;
+                w.printf("%d-%02d %d %d\n", key / 12, key % 12 + 1, map.getInt(off + 4), map.getInt(off + 8));
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        map.force();
+        channel.close();
+    }
+}
@@ -0,0 +1,235 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Memoizing front for the launcher's Windows registry lookups (App Paths and
+ * protocol handler keys).
+ *
+ * Every answer, found or not, is cached with a time to live (a day for hits,
+ * an hour for misses) and saved to a small file, so launching the same app
+ * again, even after a restart, forks no {@code reg} process. Concurrent
+ * lookups of one key share a single query. Commands go through a
+ * {@link CommandRunner}, so tests and benchmarks can swap in a fake.
+ */
+public final class RegistryResolver {
+    public static final int FORMAT = 1;
+    public static final long HIT_TTL_MILLIS = TimeUnit.HOURS.toMillis(24);
+    public static final long MISS_TTL_MILLIS = TimeUnit.HOURS.toMillis(1);
+    public static final long QUERY_TIMEOUT_MILLIS = 2000;
+    public static final String APP_PATHS = "HKLM\\SOFTWARE\\Microsoft\\Windows\\CurrentVersion\\App Paths\\";
+    public static final Pattern APP_PATH_VALUE = Pattern.compile("REG_\\w+\\s+(.*\\.exe)", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * Runs a helper command and returns its exit code and output.
+     */
+    public interface CommandRunner {
+        Result run(List<String> command, long timeoutMillis) throws IOException, InterruptedException;
+    }
+
+    public static final class Result {
+        public final int exitCode;
+        public final String output;
+
+        public Result(int exitCode, String output) {
+            this.exitCode = exitCode;
+            this.output = output;
+        }
+    }
+
+    /**
+     * Runs commands as child processes. Output is drained on a helper thread
+     * so the timeout bounds a process that hangs without closing its output;
+     * a timed-out command throws, and its answer is not cached.
+     */
+    public static final class ProcessRunner implements CommandRunner {
+        @Override
+        public Result run(List<String> command, long timeoutMillis) throws IOException, InterruptedException {
+            Process p = new ProcessBuilder(command).redirectErrorStream(true).start();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            Thread drain = new Thread(() -> {
+                try (InputStream in = p.getInputStream()) {
+                    in.transferTo(out);
+                } catch (IOException ex) {
+                    // stream closed when the process was killed
+                }
+            }, "reg-output");
+            drain.setDaemon(true);
+            drain.start();
+            if (!p.waitFor(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                p.destroyForcibly();
+                throw new IOException(command.get(0) + " timed out after " + timeoutMillis + " ms");
+            }
+            // The process has exited; its output ends shortly
+            drain.join(timeoutMillis);
+            return new Result(p.exitValue(), out.toString(StandardCharsets.UTF_8));
+        }
+    }
+
+    // value is null for a miss (or for a key that exists, in hasKey entries)
+    public static final class Cached {
+        public final boolean found;
+        public final String value;
+        public final long expiresAt;
+
+        public Cached(boolean found, String value, long expiresAt) {
+            this.found = found;
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    public final CommandRunner runner;
+    public final File file;
+    public final ConcurrentHashMap<String, Cached> cache = new ConcurrentHashMap<>();
+    public final ConcurrentHashMap<String, CompletableFuture<Cached>> inFlight = new ConcurrentHashMap<>();
+
+    public final AtomicLong hits = new AtomicLong();
+    public final AtomicLong queries = new AtomicLong();
+
+    public RegistryResolver(CommandRunner runner, File file) {
+        this.runner = runner;
+        this.file = file;
+    }
+
+    public static File defaultFile() {
+        String home = System.getProperty("user.home");
+        File desktop = new File(home + File.separator + "Desktop");
+        return new File(desktop, "vamp_resolver_cache.bin");
+    }
+
+    /**
+     * Full path registered under App Paths for an exe, or null.
+     */
+    public String appPath(String exeName) {
+        Cached c = resolve("path:" + exeName.toLowerCase(), () -> {
+            Result r = runner.run(Arrays.asList("reg", "query", APP_PATHS + exeName, "/ve"), QUERY_TIMEOUT_MILLIS);
+            for (String line : r.output.split("\\R")) {
+                Matcher m = APP_PATH_VALUE.matcher(line);
+                if (m.find()) return m.group(1).trim();
+            }
+            return null;
+        });
+        return c.found ? c.value : null;
+    }
+
+    /**
+     * Whether a registry key exists (e.g. a protocol handler such as HKEY_CLASSES_ROOT\whatsapp).
+     */
+    public boolean hasKey(String key) {
+        Cached c = resolve("key:" + key.toLowerCase(), () -> {
+            Result r = runner.run(Arrays.asList("reg", "query", key), QUERY_TIMEOUT_MILLIS);
+            return r.exitCode == 0 ? "" : null;
+        });
+        return c.found;
+    }
+
+    public interface Query {
+        // Non-null when found
+        String run() throws IOException, InterruptedException;
+    }
+
+    public Cached resolve(String key, Query query) {
+        Cached c = cache.get(key);
+        if (c != null && c.expiresAt > System.currentTimeMillis()) {
+            hits.incrementAndGet();
+            return c;
+        }
+        CompletableFuture<Cached> mine = new CompletableFuture<>();
+        CompletableFuture<Cached> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            // Someone is already asking; share their answer
+            hits.incrementAndGet();
+            return running.join();
+        }
+        try {
+            queries.incrementAndGet();
+            Cached fresh;
+            try {
+                String v = query.run();
+                long ttl = v != null ? HIT_TTL_MILLIS : MISS_TTL_MILLIS;
+                fresh = new Cached(v != null, v, System.currentTimeMillis() + ttl);
+                cache.put(key, fresh);
+                save();
+            } catch (IOException ex) {
+                // reg not available or failed to start: answer "not found" without caching
+                fresh = new Cached(false, null, 0);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                fresh = new Cached(false, null, 0);
+            }
+            mine.complete(fresh);
+            return fresh;
+        } finally {
+            inFlight.remove(key, mine);
+            // Never leave waiters hanging if the query threw unexpectedly
+            mine.complete(new Cached(false, null, 0));
+        }
+    }
+
+    /**
+     * Forget a cached answer, e.g. after a cached path failed to start.
+     */
+    public void invalidate(String key) {
+        if (cache.remove(key) != null) save();
+    }
+
+    // A resolved App Path that no longer starts is asked again next time
+    public void invalidateAppPath(String exeName) {
+        invalidate("path:" + exeName.toLowerCase());
+    }
+
+    public String stats() {
+        return String.format("%d cached, %d hits, %d queries", cache.size(), hits.get(), queries.get());
+    }
+
+    // --- persistence ---
+
+    public boolean load() {
+        if (file == null || !file.isFile()) return false;
+        long now = System.currentTimeMillis();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != FORMAT) return false;
+            int n = in.readInt();
+            for (int i = 0; i < n; i++) {
+                String key = in.readUTF();
+                boolean found = in.readBoolean();
+                String value = in.readBoolean() ? in.readUTF() : null;
+                long expiresAt = in.readLong();
+                if (expiresAt > now) cache.put(key, new Cached(found, value, expiresAt));
+            }
+            return true;
+        } catch (IOException | RuntimeException ex) {
+            return false;
+        }
+    }
+
+    public synchronized void save() {
+        if (file == null) return;
+        File tmp = new File(file.getPath() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+                List<Map.Entry<String, Cached>> all = new ArrayList<>(cache.entrySet());
+                out.writeInt(FORMAT);
+                out.writeInt(all.size());
+                for (Map.Entry<String, Cached> e : all) {
+                    Cached c = e.getValue();
+                    out.writeUTF(e.getKey());
+                    out.writeBoolean(c.found);
+                    out.writeBoolean(c.value != null);
+                    if (c.value != null) out.writeUTF(c.value);
+                    out.writeLong(c.expiresAt);
+                }
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            // ignore: answers are still cached in memory
+        }
+    }
+}
@@ -0,0 +1,172 @@
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-date indexes for a schedules map. Callers report adds and removes; edits
+ * made through Task setters reach the right {@link DayIndex} on their own.
+ * Days the store has packed have no index here; callers ask the store's
+ * query methods, which thaw a single day first or, for slot searches over
+ * many days, hand in the packed days' tables.
+ */
+public final class ScheduleIndex {
+    // Concurrent so writers on different dates never wait on each other here
+    public final Map<LocalDate, DayIndex> days = new ConcurrentHashMap<>();
+    // Told about every task change after the day's index is updated
+    public volatile ChangeListener listener;
+    // Window searched for free slots; -Dvamp.workingHours=08:30-18:00 or setWorkingHours
+    public static final String WORKING_HOURS_PROPERTY = "vamp.workingHours";
+    public volatile LocalTime workdayStart = LocalTime.of(9, 0);
+    public volatile LocalTime workdayEnd = LocalTime.of(17, 0);
+
+    public ScheduleIndex() {
+        setWorkingHours(System.getProperty(WORKING_HOURS_PROPERTY));
+    }
+
+    /**
+     * Set the window from "HH:mm-HH:mm". Null or malformed text leaves the
+     * current window, so a bad property falls back to 09:00-17:00.
+     */
+    public boolean setWorkingHours(String range) {
+        if (range == null) return false;
+        String[] parts = range.trim().split("-");
+        if (parts.length != 2) return false;
+        try {
+            setWorkingHours(LocalTime.parse(parts[0].trim()), LocalTime.parse(parts[1].trim()));
+            return true;
+        } catch (RuntimeException ex) {
+            return false;
+        }
+    }
+
+    public void setWorkingHours(LocalTime start, LocalTime end) {
+        if (start == null || end == null || !end.isAfter(start))
+            throw new IllegalArgumentException("Working hours must end after they start");
+        workdayStart = start;
+        workdayEnd = end;
+    }
+
+    /**
+     * Receives task edits (times or done state) together with the task's date.
+     */
+    public interface ChangeListener {
+        void taskChanged(LocalDate date, Task task, LocalTime oldStart, LocalTime oldEnd, boolean oldDone);
+    }
+
+    public DayIndex day(LocalDate date) {
+        return days.computeIfAbsent(date, d -> new DayIndex(d, this));
+    }
+
+    public void dayChanged(LocalDate date, Task t, LocalTime oldStart, LocalTime oldEnd, boolean oldDone) {
+        ChangeListener l = listener;
+        if (l != null) l.taskChanged(date, t, oldStart, oldEnd, oldDone);
+    }
+
+    // Existing index for a date, or null when nothing was ever added to it
+    public DayIndex peek(LocalDate date) {
+        return days.get(date);
+    }
+
+    public void add(LocalDate date, Task t) {
+        day(date).add(t);
+    }
+
+    public void remove(LocalDate date, Task t) {
+        DayIndex d = peek(date);
+        if (d != null) d.remove(t);
+    }
+
+    // Forget a whole day (its tasks were moved to cold storage)
+    public void dropDay(LocalDate date) {
+        days.remove(date);
+    }
+
+    // Forget every day (the store is being reloaded)
+    public void clear() {
+        days.clear();
+    }
+
+    /**
+     * Index every task of a schedules map (e.g. right after journal replay).
+     */
+    public void addAll(Map<LocalDate, List<Task>> schedules) {
+        for (Map.Entry<LocalDate, List<Task>> e : schedules.entrySet()) {
+            DayIndex d = day(e.getKey());
+            for (Task t : e.getValue()) d.add(t);
+        }
+    }
+
+    public boolean hasOverlap(LocalDate date, LocalTime start, LocalTime end, Task exclude) {
+        DayIndex d = peek(date);
+        return d != null && d.hasOverlap(start, end, exclude);
+    }
+
+    /**
+     * Earliest start within working hours where {@code durationMinutes} fit, or null.
+     */
+    public LocalTime findFreeSlot(LocalDate date, int durationMinutes) {
+        LocalTime from = workdayStart, to = workdayEnd;
+        DayIndex d = peek(date);
+        if (d != null) return d.findFreeSlot(durationMinutes, from, to);
+        return DayIndex.minuteOf(from) + durationMinutes <= DayIndex.minuteOf(to) ? from : null;
+    }
+
+    /**
+     * Up to {@code maxResults} free slots of {@code durationMinutes} within
+     * working hours, earliest first, from {@code fromDate} through {@code toDate}.
+     *
+     * Days are visited one at a time and the walk stops as soon as enough slots
+     * are found. Days without tasks are free from the start of the window and
+     * are never materialised. Days whose busy-minute count leaves too little
+     * room are skipped without a scan.
+     */
+    public List<LocalDateTime> findSlots(LocalDate fromDate, LocalDate toDate, int durationMinutes, int maxResults) {
+        return findSlots(fromDate, toDate, durationMinutes, maxResults, Collections.emptyMap());
+    }
+
+    /**
+     * As above, with days that have no index here but are in {@code packed}
+     * searched through a bitmap built from their arrays.
+     */
+    public List<LocalDateTime> findSlots(LocalDate fromDate, LocalDate toDate, int durationMinutes, int maxResults,
+                                         Map<LocalDate, CompactDay> packed) {
+        List<LocalDateTime> out = new ArrayList<>();
+        int from = DayIndex.minuteOf(workdayStart);
+        int to = DayIndex.minuteOf(workdayEnd);
+        if (durationMinutes <= 0 || maxResults <= 0 || from + durationMinutes > to) return out;
+        for (LocalDate date = fromDate; !date.isAfter(toDate) && out.size() < maxResults; date = date.plusDays(1)) {
+            DayIndex d = peek(date);
+            if (d == null) {
+                CompactDay c = packed.get(date);
+                MinuteBitmap bits = c == null ? null : c.occupancy();
+                if (bits != null && to - from - bits.busyMinutes(from, to) < durationMinutes) continue;
+                addRuns(out, date, bits, from, to, durationMinutes, maxResults);
+                continue;
+            }
+            synchronized (d) {
+                if (to - from - d.occupancy.busyMinutes(from, to) < durationMinutes) continue; // fully booked
+                addRuns(out, date, d.occupancy, from, to, durationMinutes, maxResults);
+            }
+        }
+        return out;
+    }
+
+    // Consecutive non-overlapping slots within one day's window
+    public static void addRuns(List<LocalDateTime> out, LocalDate date, MinuteBitmap bits,
+                               int from, int to, int duration, int maxResults) {
+        int pos = from;
+        while (out.size() < maxResults) {
+            int m = bits == null ? (pos + duration <= to ? pos : -1) : bits.findFreeRun(duration, pos, to);
+            if (m < 0) return;
+            out.add(LocalDateTime.of(date, LocalTime.of(m / 60, m % 60)));
+            pos = m + duration;
+        }
+    }
+
+    public List<Task> conflicts(LocalDate date, LocalTime start, LocalTime end) {
+        DayIndex d = peek(date);
+        return d == null ? Collections.emptyList() : d.conflicts(start, end);
+    }
+}
@@ -0,0 +1,531 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead journal for the in-memory schedules map.
+ *
+ * Every add, edit, delete and done toggle is encoded as a small binary record
+ * and handed to a background writer. The writer drains everything queued since
+ * its last pass, writes it with one gathering write and issues a single fsync,
+ * so a burst of edits costs one disk flush (group commit).
+ *
+ * Records carry absolute state (an edit stores the whole task, a toggle stores
+ * the new flag), which makes replay idempotent: applying a record twice leaves
+ * the map exactly as applying it once.
+ *
+ * File layout: header {int MAGIC, short VERSION}, then records of
+ * {int payloadLength, int crc32(payload), payload}. A torn or corrupt tail
+ * (e.g. power loss mid-write) is detected by length/CRC and cut off on open.
+ *
+ * {@link #compact()} folds the journal into a snapshot file (same record
+ * format, one ADD per live task) and drops the journal prefix it covers, so
+ * startup replays live data plus a short tail rather than the full history.
+ *
+ * Version 2 records carry the task's 64-bit id. Version 1 files (UUID ids)
+ * are still read: each UUID is mapped with {@link TaskIds#fromUuid}, and the
+ * files are rewritten as version 2 right after loading. The mapping is
+ * deterministic, so a crash halfway through that rewrite is harmless.
+ */
+public final class ScheduleJournal implements Closeable {
+    public static final int MAGIC = 0x56414D4A; // "VAMJ"
+    public static final int SNAPSHOT_MAGIC = 0x56414D53; // "VAMS"
+    public static final short VERSION = 2;
+    public static final short LEGACY_VERSION = 1;
+    public static final int HEADER_BYTES = 6;
+
+    public static final byte OP_ADD = 1;
+    public static final byte OP_EDIT = 2;
+    public static final byte OP_DELETE = 3;
+    public static final byte OP_DONE = 4;
+
+    public final File file;
+    public final File snapshotFile;
+    public final Thread writer;
+
+    // Held by the writer while it writes and by compact() while it swaps files
+    public final Object ioLock = new Object();
+    public FileChannel channel;
+    // Length of the journal prefix that is known to be fully written and forced
+    public volatile long durableLength;
+
+    // All fields below are guarded by lock
+    public final Object lock = new Object();
+    public final ArrayDeque<ByteBuffer> pending = new ArrayDeque<>();
+    public long appendedSeq = 0;
+    public long durableSeq = 0;
+    public boolean closed = false;
+    public IOException failure;
+
+    public int replayedRecords = 0;
+
+    /**
+     * Journal file for a user, stored next to the monthly stats file.
+     */
+    public static File fileForUser(String user) {
+        String home = System.getProperty("user.home");
+        String safe = user.replaceAll("[^A-Za-z0-9_.-]", "_");
+        File desktop = new File(home + File.separator + "Desktop");
+        return new File(desktop, safe + "_vamp_schedule.journal");
+    }
+
+    /**
+     * Open (or create) a journal, replay its snapshot and contents into
+     * {@code into} and return it ready for appends.
+     */
+    public static ScheduleJournal open(File file, Map<LocalDate, List<Task>> into) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists()) parent.mkdirs();
+        FileChannel ch = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ScheduleJournal j = new ScheduleJournal(file, ch);
+            Replay replay = new Replay(into);
+            j.replayedRecords = readSnapshot(j.snapshotFile, replay) + j.replayAndTruncate(replay);
+            // Rewrite UUID-era files before anything new is appended
+            if (replay.legacy) j.compactUpTo(j.durableLength);
+            // A clock that stepped back since the last run must not reissue a stored id
+            TaskIds.seen(replay.maxId);
+            j.writer.start();
+            return j;
+        } catch (IOException | RuntimeException ex) {
+            ch.close();
+            throw ex;
+        }
+    }
+
+    public ScheduleJournal(File file, FileChannel channel) {
+        this.file = file;
+        this.snapshotFile = new File(file.getPath() + ".snapshot");
+        this.channel = channel;
+        this.writer = new Thread(this::writeLoop, "VA-Journal-Writer");
+        this.writer.setDaemon(true);
+    }
+
+    public int getReplayedRecords() { return replayedRecords; }
+
+    /**
+     * Bytes appended to the journal since it was last compacted.
+     */
+    public long uncompactedBytes() { return Math.max(0, durableLength - HEADER_BYTES); }
+
+    // --- Appending ---
+
+    public void recordAdd(LocalDate date, Task t) { append(encodeTask(OP_ADD, date, t)); }
+
+    public void recordEdit(LocalDate date, Task t) { append(encodeTask(OP_EDIT, date, t)); }
+
+    public void recordDelete(LocalDate date, Task t) {
+        ByteBuffer b = ByteBuffer.allocate(8 + 13);
+        beginRecord(b, OP_DELETE, date, t.getId());
+        append(finishRecord(b));
+    }
+
+    public void recordDone(LocalDate date, Task t) {
+        ByteBuffer b = ByteBuffer.allocate(8 + 14);
+        beginRecord(b, OP_DONE, date, t.getId());
+        b.put((byte) (t.isDone() ? 1 : 0));
+        append(finishRecord(b));
+    }
+
+    /**
+     * Queue an encoded record. Never blocks on disk; the writer thread picks it up.
+     */
+    public void append(ByteBuffer record) {
+        synchronized (lock) {
+            if (closed) throw new IllegalStateException("Journal is closed");
+            pending.add(record);
+            appendedSeq++;
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Block until every record appended before this call is on disk.
+     */
+    public void flush() throws IOException {
+        synchronized (lock) {
+            long target = appendedSeq;
+            while (durableSeq < target && failure == null) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while flushing journal");
+                }
+            }
+            if (failure != null) throw failure;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            if (closed) return;
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (ioLock) {
+            channel.close();
+        }
+        if (failure != null) throw failure;
+    }
+
+    public void writeLoop() {
+        while (true) {
+            ByteBuffer[] batch;
+            long target;
+            synchronized (lock) {
+                while (pending.isEmpty() && !closed) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        // only close() stops the writer; keep draining
+                    }
+                }
+                if (pending.isEmpty()) return; // closed and fully drained
+                batch = pending.toArray(new ByteBuffer[0]);
+                pending.clear();
+                target = appendedSeq;
+            }
+            try {
+                synchronized (ioLock) {
+                    long remaining = 0;
+                    for (ByteBuffer b : batch) remaining += b.remaining();
+                    while (remaining > 0) remaining -= channel.write(batch);
+                    channel.force(false);
+                    durableLength = channel.position();
+                }
+                synchronized (lock) {
+                    durableSeq = target;
+                    lock.notifyAll();
+                }
+            } catch (IOException ex) {
+                synchronized (lock) {
+                    failure = ex;
+                    lock.notifyAll();
+                }
+                return;
+            }
+        }
+    }
+
+    // --- Encoding ---
+
+    public static void beginRecord(ByteBuffer b, byte op, LocalDate date, long id) {
+        b.position(8); // leave room for length + crc
+        b.put(op);
+        b.putInt((int) date.toEpochDay());
+        b.putLong(id);
+    }
+
+    public static ByteBuffer finishRecord(ByteBuffer b) {
+        int end = b.position();
+        int payloadLen = end - 8;
+        CRC32 crc = new CRC32();
+        crc.update(b.array(), 8, payloadLen);
+        b.putInt(0, payloadLen);
+        b.putInt(4, (int) crc.getValue());
+        b.position(0);
+        b.limit(end);
+        return b;
+    }
+
+    public static ByteBuffer encodeTask(byte op, LocalDate date, Task t) {
+        byte[] title = t.getTitle().getBytes(StandardCharsets.UTF_8);
+        if (title.length > Short.MAX_VALUE) throw new IllegalArgumentException("Task title too long");
+        ByteBuffer b = ByteBuffer.allocate(8 + 13 + 2 + 2 + 4 + 1 + 2 + title.length);
+        beginRecord(b, op, date, t.getId());
+        b.putShort(minuteOf(t.getStartTime()));
+        b.putShort(minuteOf(t.getEndTime()));
+        b.putInt(t.getDurationMinutes());
+        b.put((byte) (t.isDone() ? 1 : 0));
+        b.putShort((short) title.length);
+        b.put(title);
+        return finishRecord(b);
+    }
+
+    public static short minuteOf(LocalTime time) {
+        return time == null ? -1 : (short) (time.getHour() * 60 + time.getMinute());
+    }
+
+    public static LocalTime timeOf(short minute) {
+        return minute < 0 ? null : LocalTime.of(minute / 60, minute % 60);
+    }
+
+    // --- Replay ---
+
+    /**
+     * Replay every valid journal record, cut off any torn tail and leave the
+     * channel positioned for appending. Returns the record count.
+     */
+    public int replayAndTruncate(Replay replay) throws IOException {
+        long size = channel.size();
+        if (size < HEADER_BYTES) {
+            channel.truncate(0);
+            channel.position(0);
+            writeHeader(channel, MAGIC);
+            channel.force(true);
+            durableLength = HEADER_BYTES;
+            return 0;
+        }
+        ByteBuffer buf = readRange(channel, 0, size, file);
+        replay.setVersion(checkHeader(buf, MAGIC, file));
+        int count = replayRecords(buf, replay);
+        long good = buf.position();
+        if (good < size) channel.truncate(good);
+        channel.position(good);
+        durableLength = good;
+        return count;
+    }
+
+    /**
+     * Replay a snapshot file if one exists. A damaged snapshot tail is ignored:
+     * the journal still holds every record the snapshot would have covered
+     * until the next successful compaction.
+     */
+    public static int readSnapshot(File snapshot, Replay replay) throws IOException {
+        if (!snapshot.exists()) return 0;
+        try (FileChannel ch = FileChannel.open(snapshot.toPath(), StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < HEADER_BYTES) return 0;
+            ByteBuffer buf = readRange(ch, 0, size, snapshot);
+            replay.setVersion(checkHeader(buf, SNAPSHOT_MAGIC, snapshot));
+            return replayRecords(buf, replay);
+        }
+    }
+
+    /**
+     * Apply records from the buffer's position until the end or the first
+     * torn/corrupt record. Leaves the buffer positioned after the last good one.
+     */
+    public static int replayRecords(ByteBuffer buf, Replay replay) {
+        byte[] bytes = buf.array();
+        int count = 0;
+        int good = buf.position();
+        CRC32 crc = new CRC32();
+        int minPayload = replay.version == LEGACY_VERSION ? 21 : 13;
+        while (buf.remaining() >= 8) {
+            int len = buf.getInt();
+            int expected = buf.getInt();
+            if (len < minPayload || len > buf.remaining()) break;
+            int start = buf.position();
+            crc.reset();
+            crc.update(bytes, start, len);
+            if ((int) crc.getValue() != expected) break;
+            replay.apply(buf);
+            buf.position(start + len);
+            good = start + len;
+            count++;
+        }
+        buf.position(good);
+        return count;
+    }
+
+    // One bulk read into a heap array: CRC and field decoding then run on plain memory
+    public static ByteBuffer readRange(FileChannel ch, long from, long to, File source) throws IOException {
+        if (to - from > Integer.MAX_VALUE) throw new IOException("File too large to replay: " + source);
+        ByteBuffer buf = ByteBuffer.allocate((int) (to - from));
+        while (buf.hasRemaining()) {
+            if (ch.read(buf, from + buf.position()) < 0) break;
+        }
+        buf.flip();
+        return buf;
+    }
+
+    // Returns the file's format version
+    public static short checkHeader(ByteBuffer buf, int magic, File source) throws IOException {
+        if (buf.remaining() < HEADER_BYTES || buf.getInt() != magic) throw new IOException("Not a schedule journal: " + source);
+        short version = buf.getShort();
+        if (version != VERSION && version != LEGACY_VERSION) throw new IOException("Unsupported journal version " + version + ": " + source);
+        return version;
+    }
+
+    public static void writeHeader(FileChannel ch, int magic) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(magic).putShort(VERSION).flip();
+        while (header.hasRemaining()) ch.write(header);
+    }
+
+    // --- Compaction ---
+
+    /**
+     * Fold the durable journal prefix into the snapshot file and drop it from
+     * the journal. Runs on the caller's thread; appends keep queueing meanwhile
+     * and the writer is only held off for the final copy of the short tail.
+     * Returns the number of live tasks written to the snapshot, or 0 when the
+     * journal holds nothing new.
+     *
+     * Crash safety comes from idempotent replay: if we stop after the new
+     * snapshot is in place but before the journal is cut, the next start
+     * replays the snapshot and then the full journal, which lands on the same state.
+     */
+    public int compact() throws IOException {
+        long cutoff = durableLength;
+        if (cutoff <= HEADER_BYTES) return 0;
+        return compactUpTo(cutoff);
+    }
+
+    public int compactUpTo(long cutoff) throws IOException {
+        // 1. Rebuild state from the previous snapshot plus the covered prefix
+        Map<LocalDate, List<Task>> state = new HashMap<>();
+        Replay replay = new Replay(state);
+        readSnapshot(snapshotFile, replay);
+        FileChannel ch;
+        synchronized (ioLock) {
+            ch = channel;
+        }
+        ByteBuffer prefix = readRange(ch, 0, cutoff, file);
+        replay.setVersion(checkHeader(prefix, MAGIC, file));
+        replayRecords(prefix, replay);
+
+        // 2. Write the new snapshot beside the old one and swap it in atomically
+        File tmp = new File(snapshotFile.getPath() + ".tmp");
+        int live = 0;
+        try (FileChannel out = FileChannel.open(tmp.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeHeader(out, SNAPSHOT_MAGIC);
+            for (Map.Entry<LocalDate, List<Task>> e : state.entrySet()) {
+                for (Task t : e.getValue()) {
+                    ByteBuffer rec = encodeTask(OP_ADD, e.getKey(), t);
+                    while (rec.hasRemaining()) out.write(rec);
+                    live++;
+                }
+            }
+            out.force(true);
+        }
+        Files.move(tmp.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        // 3. Replace the journal with header + whatever was appended after the cutoff
+        File rotated = new File(file.getPath() + ".tmp");
+        synchronized (ioLock) {
+            long end = channel.size();
+            try (FileChannel out = FileChannel.open(rotated.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                writeHeader(out, MAGIC);
+                long pos = cutoff;
+                while (pos < end) pos += channel.transferTo(pos, end - pos, out);
+                out.force(true);
+            }
+            Files.move(rotated.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            channel.close();
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+            channel.position(channel.size());
+            durableLength = channel.size();
+        }
+        return live;
+    }
+
+    /**
+     * Replay state: resolves record ids to live tasks and their current date.
+     */
+    public static final class Replay {
+        public final Map<LocalDate, List<Task>> into;
+        public final Map<Long, Task> byId = new HashMap<>();
+        public final Map<Task, LocalDate> dateOf = new IdentityHashMap<>();
+        // Records for one day arrive in runs, so the last decoded date is usually reused
+        public int lastEpochDay = Integer.MIN_VALUE;
+        public LocalDate lastDate;
+        // Format of the file being replayed, and whether any file was still version 1
+        public short version = VERSION;
+        public boolean legacy = false;
+        // Largest id seen, so new ids can be issued above everything on disk
+        public long maxId = 0;
+
+        public Replay(Map<LocalDate, List<Task>> into) {
+            this.into = into;
+            for (Map.Entry<LocalDate, List<Task>> e : into.entrySet()) {
+                for (Task t : e.getValue()) {
+                    byId.put(t.getId(), t);
+                    maxId = Math.max(maxId, t.getId());
+                    dateOf.put(t, e.getKey());
+                }
+            }
+        }
+
+        public void setVersion(short v) {
+            version = v;
+            if (v == LEGACY_VERSION) legacy = true;
+        }
+
+        public LocalDate date(int epochDay) {
+            if (epochDay != lastEpochDay) {
+                lastEpochDay = epochDay;
+                lastDate = LocalDate.ofEpochDay(epochDay);
+            }
+            return lastDate;
+        }
+
+        public void apply(ByteBuffer p) {
+            byte op = p.get();
+            LocalDate date = date(p.getInt());
+            long id = version == LEGACY_VERSION ? TaskIds.fromUuid(new UUID(p.getLong(), p.getLong())) : p.getLong();
+            if (id > maxId) maxId = id;
+            Task existing = byId.get(id);
+            switch (op) {
+                case OP_ADD, OP_EDIT -> {
+                    LocalTime start = timeOf(p.getShort());
+                    LocalTime end = timeOf(p.getShort());
+                    int duration = p.getInt();
+                    boolean done = p.get() != 0;
+                    int titleLen = p.getShort();
+                    String name = new String(p.array(), p.position(), titleLen, StandardCharsets.UTF_8);
+                    p.position(p.position() + titleLen);
+                    if (existing == null) {
+                        Task t = new Task(id, name, start, end, duration, done);
+                        into.computeIfAbsent(date, d -> new ArrayList<>()).add(t);
+                        byId.put(id, t);
+                        dateOf.put(t, date);
+                    } else {
+                        existing.setTitle(name);
+                        existing.setTimes(start, end);
+                        existing.setDurationMinutes(duration);
+                        existing.setDone(done);
+                        LocalDate old = dateOf.get(existing);
+                        if (!date.equals(old)) {
+                            removeFrom(into, old, existing);
+                            into.computeIfAbsent(date, d -> new ArrayList<>()).add(existing);
+                            dateOf.put(existing, date);
+                        }
+                    }
+                }
+                case OP_DONE -> {
+                    boolean done = p.get() != 0;
+                    if (existing != null) existing.setDone(done);
+                }
+                case OP_DELETE -> {
+                    if (existing != null) {
+                        removeFrom(into, dateOf.remove(existing), existing);
+                        byId.remove(id);
+                    }
+                }
+                default -> { /* unknown op from a newer build: skip the record */ }
+            }
+        }
+    }
+
+    public static void removeFrom(Map<LocalDate, List<Task>> into, LocalDate date, Task t) {
+        List<Task> list = into.get(date);
+        if (list == null) return;
+        for (int i = list.size() - 1; i >= 0; i--) {
+            if (list.get(i) == t) {
+                list.remove(i);
+                break;
+            }
+        }
+        if (list.isEmpty()) into.remove(date);
+    }
+}
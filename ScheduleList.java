@@ -0,0 +1,233 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.*;
+import java.time.LocalDate;
+
+/**
+ * Task list of the View Schedule dialog: one row per task with its title,
+ * times and Edit/Delete buttons.
+ *
+ * Rows are not components. A single renderer panel (label plus two stamp
+ * buttons) is configured and painted for each visible row, and clicks are
+ * hit-tested against that same panel laid out at the row's size. Rows have
+ * a fixed height, so the list never measures them.
+ *
+ * The {@link Model} listens to the store while the dialog is open and
+ * turns each change into the smallest insert, update or remove event, so
+ * editing one task repaints only the rows whose position it touched, and
+ * switching dates swaps one array.
+ */
+public class ScheduleList extends JList<ScheduleSnapshot.Item> {
+    public static final long serialVersionUID = 1L;
+    public static final int ROW_GAP = 2;
+    public static final int LABEL_MAX_WIDTH = 400;
+
+    /**
+     * What the row buttons do.
+     */
+    public interface Actions {
+        void edit(Task task);
+
+        void delete(Task task);
+    }
+
+    /**
+     * The published items of one date, kept in step with the store.
+     */
+    public static class Model extends AbstractListModel<ScheduleSnapshot.Item> implements ScheduleStore.Listener {
+        public static final long serialVersionUID = 1L;
+        public final transient ScheduleStore store;
+        public LocalDate date;
+        public transient ScheduleSnapshot.Item[] items = new ScheduleSnapshot.Item[0];
+        public int updates = 0;
+
+        public Model(ScheduleStore store, LocalDate date) {
+            this.store = store;
+            setDate(date);
+        }
+
+        @Override
+        public int getSize() {
+            return items.length;
+        }
+
+        @Override
+        public ScheduleSnapshot.Item getElementAt(int index) {
+            return items[index];
+        }
+
+        public ScheduleSnapshot.Item[] published() {
+            ScheduleSnapshot.Item[] next = store.snapshot().days.get((int) date.toEpochDay());
+            return next != null ? next : new ScheduleSnapshot.Item[0];
+        }
+
+        /**
+         * Show another date (thawing it if packed) in one swap.
+         */
+        public void setDate(LocalDate d) {
+            date = d;
+            store.view(d);
+            ScheduleSnapshot.Item[] next = published();
+            int old = items.length;
+            items = new ScheduleSnapshot.Item[0];
+            if (old > 0) fireIntervalRemoved(this, 0, old - 1);
+            items = next;
+            if (next.length > 0) fireIntervalAdded(this, 0, next.length - 1);
+        }
+
+        /**
+         * Catch up with the store's current items for the date. Rows that kept
+         * their task at both ends of the list are left alone; the window in
+         * between becomes one update, or one remove plus one insert when its
+         * size changed. {@code changed}, if not null, is a task edited in
+         * place and is updated wherever it sits.
+         */
+        public void sync(Task changed) {
+            ScheduleSnapshot.Item[] prev = items, next = published();
+            if (next == prev) return;
+            int p = 0;
+            while (p < prev.length && p < next.length && prev[p].task == next[p].task) p++;
+            int s = 0;
+            while (s < prev.length - p && s < next.length - p
+                    && prev[prev.length - 1 - s].task == next[next.length - 1 - s].task) s++;
+            int oldCount = prev.length - p - s, newCount = next.length - p - s;
+            if (oldCount == newCount) {
+                items = next;
+                if (oldCount > 0) fireContentsChanged(this, p, p + oldCount - 1);
+            } else {
+                items = copyWithout(prev, p, oldCount);
+                if (oldCount > 0) fireIntervalRemoved(this, p, p + oldCount - 1);
+                items = next;
+                if (newCount > 0) fireIntervalAdded(this, p, p + newCount - 1);
+            }
+            updates++;
+            // An in-place edit keeps its position, so the window above missed it
+            if (changed != null) {
+                for (int i = 0; i < next.length; i++) {
+                    if (next[i].task != changed) continue;
+                    if (i < p || i >= p + newCount) fireContentsChanged(this, i, i);
+                    break;
+                }
+            }
+        }
+
+        public static ScheduleSnapshot.Item[] copyWithout(ScheduleSnapshot.Item[] a, int from, int count) {
+            ScheduleSnapshot.Item[] out = new ScheduleSnapshot.Item[a.length - count];
+            System.arraycopy(a, 0, out, 0, from);
+            System.arraycopy(a, from + count, out, from, a.length - from - count);
+            return out;
+        }
+
+        // Store callbacks come from whichever thread made the change
+        @Override
+        public void taskChanged(LocalDate d, Task task, boolean removed) {
+            SwingUtilities.invokeLater(() -> {
+                if (d.equals(date)) sync(removed ? null : task);
+            });
+        }
+
+        @Override
+        public void storeReloaded() {
+            SwingUtilities.invokeLater(() -> setDate(date));
+        }
+
+        /**
+         * Follow the store until the window closes.
+         */
+        public void bindTo(Window w) {
+            store.listeners.add(this);
+            w.addWindowListener(new WindowAdapter() {
+                @Override
+                public void windowClosed(WindowEvent e) {
+                    store.listeners.remove(Model.this);
+                }
+            });
+        }
+    }
+
+    // The one row panel shared by every cell
+    public final JPanel row = new JPanel(new BorderLayout());
+    public final JLabel label = new JLabel() {
+        @Override
+        public Dimension getPreferredSize() {
+            Dimension d = super.getPreferredSize();
+            return new Dimension(Math.min(LABEL_MAX_WIDTH, d.width), d.height);
+        }
+    };
+    public final JPanel controls = new JPanel(new FlowLayout(FlowLayout.RIGHT, 8, 0));
+    public final JButton editStamp;
+    public final JButton deleteStamp;
+    public final transient Actions actions;
+
+    public ScheduleList(Model model, JButton editStamp, JButton deleteStamp, Actions actions) {
+        super(model);
+        this.editStamp = editStamp;
+        this.deleteStamp = deleteStamp;
+        this.actions = actions;
+
+        row.setBackground(Colors.ROW_BG);
+        row.setBorder(BorderFactory.createCompoundBorder(
+                BorderFactory.createMatteBorder(ROW_GAP, 0, 0, 0, Colors.PANEL_BG),
+                BorderFactory.createEmptyBorder(8, 10, 8, 10)));
+        label.setForeground(Color.WHITE);
+        JPanel infoPanel = new JPanel(new BorderLayout());
+        infoPanel.setOpaque(false);
+        infoPanel.add(label, BorderLayout.WEST);
+        controls.setOpaque(false);
+        controls.add(editStamp);
+        controls.add(deleteStamp);
+        row.add(infoPanel, BorderLayout.CENTER);
+        row.add(controls, BorderLayout.EAST);
+
+        setBackground(Colors.PANEL_BG);
+        setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        setFocusable(false);
+        // Fixed sizes: the list never asks the renderer to measure rows
+        label.setText("Prototype (00:00 - 00:00)");
+        setFixedCellHeight(row.getPreferredSize().height);
+        setFixedCellWidth(row.getPreferredSize().width);
+        setCellRenderer((list, item, index, selected, focused) -> configure(item));
+
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                Task t = taskAt(e.getPoint());
+                if (t == null) return;
+                Component hit = buttonAt(e.getPoint());
+                if (hit == editStamp) actions.edit(t);
+                else if (hit == deleteStamp) actions.delete(t);
+            }
+        });
+        setCursor(new Cursor(Cursor.HAND_CURSOR));
+    }
+
+    public JPanel configure(ScheduleSnapshot.Item it) {
+        String timeText = (it.getStartTime() != null ? it.getStartTime().toString() : "")
+                + (it.getEndTime() != null ? " - " + it.getEndTime().toString() : "");
+        label.setText(it.getTitle() + " (" + timeText + ")");
+        return row;
+    }
+
+    public Task taskAt(Point p) {
+        int index = locationToIndex(p);
+        if (index < 0 || !getCellBounds(index, index).contains(p)) return null;
+        return getModel().getElementAt(index).task;
+    }
+
+    // Lay the renderer out over the clicked row and see which stamp is under the point
+    public Component buttonAt(Point p) {
+        int index = locationToIndex(p);
+        Rectangle cell = getCellBounds(index, index);
+        configure(getModel().getElementAt(index));
+        row.setBounds(0, 0, cell.width, cell.height);
+        row.doLayout();
+        for (Component c : row.getComponents()) {
+            if (c instanceof Container) ((Container) c).doLayout();
+        }
+        Point inControls = new Point(p.x - cell.x - controls.getX(), p.y - cell.y - controls.getY());
+        for (Component c : controls.getComponents()) {
+            if (c.getBounds().contains(inControls)) return c;
+        }
+        return null;
+    }
+}
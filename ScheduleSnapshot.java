@@ -0,0 +1,179 @@
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.*;
+
+/**
+ * Immutable, versioned view of the schedule for lock-free readers.
+ *
+ * Days are kept in a persistent 32-way trie keyed by epoch day and monthly
+ * {done, total} rollups in a second trie keyed by month. Each day is an
+ * array of {@link Item}s: copies of its tasks' fields taken when the day was
+ * published, in start-time order. Publishing a changed day copies only the
+ * five trie nodes on the path to it (path copying), so a write costs the
+ * same whether the schedule holds a week or decades, and every older
+ * snapshot stays valid for whoever still holds it.
+ *
+ * {@link ScheduleStore} publishes a new snapshot through one atomic
+ * reference after every change, applying the day's items and the month's
+ * count deltas in the same compare-and-set so the two always agree.
+ * Readers on other threads (the reminder engine, painting, progress stats)
+ * take {@link ScheduleStore#snapshot()} and read it without locks; they
+ * never see a half-applied edit.
+ */
+public final class ScheduleSnapshot {
+    public static final ScheduleSnapshot EMPTY = new ScheduleSnapshot(IntTrie.empty(), IntTrie.empty(), 0);
+
+    /**
+     * A task's state as of publication. {@code task} is the live object,
+     * for callers that go on to edit it (on the writer's thread).
+     */
+    public static final class Item {
+        public final Task task;
+        public final String title;
+        public final LocalTime startTime;
+        public final LocalTime endTime;
+        public final int durationMinutes;
+        public final boolean done;
+
+        public Item(Task t) {
+            this.task = t;
+            this.title = t.getTitle();
+            this.startTime = t.getStartTime();
+            this.endTime = t.getEndTime();
+            this.durationMinutes = t.getDurationMinutes();
+            this.done = t.isDone();
+        }
+
+        public String getTitle() { return title; }
+
+        public LocalTime getStartTime() { return startTime; }
+
+        public LocalTime getEndTime() { return endTime; }
+
+        public int getDurationMinutes() { return durationMinutes; }
+
+        public boolean isDone() { return done; }
+    }
+
+    /**
+     * Persistent map from int keys to values: a fixed five-level trie of
+     * 32-slot nodes covering 2^25 keys around zero. Updates return a new
+     * trie sharing every untouched node with the old one.
+     */
+    public static final class IntTrie<V> {
+        public static final int BITS = 5;
+        public static final int LEVELS = 5;
+        public static final int OFFSET = 1 << (BITS * LEVELS - 1);
+        public static final IntTrie<Object> EMPTY = new IntTrie<>(null, 0);
+
+        public final Object[] root;
+        public final int size;
+
+        public IntTrie(Object[] root, int size) {
+            this.root = root;
+            this.size = size;
+        }
+
+        @SuppressWarnings("unchecked")
+        public static <V> IntTrie<V> empty() {
+            return (IntTrie<V>) EMPTY;
+        }
+
+        public static int slotKey(int key) {
+            int k = key + OFFSET;
+            if (k < 0 || k >= OFFSET * 2) throw new IllegalArgumentException("Key out of range: " + key);
+            return k;
+        }
+
+        @SuppressWarnings("unchecked")
+        public V get(int key) {
+            int k = key + OFFSET;
+            if (k < 0 || k >= OFFSET * 2) return null;
+            Object[] node = root;
+            for (int shift = BITS * (LEVELS - 1); node != null; shift -= BITS) {
+                Object child = node[(k >>> shift) & 31];
+                if (shift == 0) return (V) child;
+                node = (Object[]) child;
+            }
+            return null;
+        }
+
+        /**
+         * A trie with {@code key} mapped to {@code value}, or removed when value is null.
+         */
+        public IntTrie<V> with(int key, V value) {
+            int k = slotKey(key);
+            boolean had = get(key) != null;
+            Object[] root2 = set(root, k, BITS * (LEVELS - 1), value);
+            int size2 = size + (value != null ? (had ? 0 : 1) : (had ? -1 : 0));
+            return new IntTrie<>(root2, size2);
+        }
+
+        // Copy the path to k; drop nodes that become empty
+        public static Object[] set(Object[] node, int k, int shift, Object value) {
+            int idx = (k >>> shift) & 31;
+            Object[] copy = node != null ? node.clone() : new Object[32];
+            copy[idx] = shift == 0 ? value : set((Object[]) copy[idx], k, shift - BITS, value);
+            for (Object o : copy) {
+                if (o != null) return copy;
+            }
+            return null;
+        }
+    }
+
+    public final IntTrie<Item[]> days;
+    public final IntTrie<int[]> months;
+    public final long version;
+
+    public ScheduleSnapshot(IntTrie<Item[]> days, IntTrie<int[]> months, long version) {
+        this.days = days;
+        this.months = months;
+        this.version = version;
+    }
+
+    public static int monthKey(YearMonth m) {
+        return m.getYear() * 12 + m.getMonthValue() - 1;
+    }
+
+    /**
+     * The date's tasks in start-time order; empty when none were published.
+     */
+    public List<Item> day(LocalDate date) {
+        Item[] items = days.get((int) date.toEpochDay());
+        return items == null ? Collections.emptyList() : Collections.unmodifiableList(Arrays.asList(items));
+    }
+
+    /**
+     * {done, total} for a month; {0, 0} when it has no tasks.
+     */
+    public int[] month(YearMonth m) {
+        int[] r = months.get(monthKey(m));
+        return r != null ? r.clone() : new int[2];
+    }
+
+    public int dayCount() { return days.size; }
+
+    /**
+     * A snapshot with one day's items replaced and its month's totals moved
+     * by the given deltas. Null or empty items remove the day.
+     */
+    public ScheduleSnapshot withDay(LocalDate date, Item[] items, int deltaDone, int deltaTotal) {
+        IntTrie<Item[]> d = days.with((int) date.toEpochDay(), items == null || items.length == 0 ? null : items);
+        IntTrie<int[]> m = months;
+        if (deltaDone != 0 || deltaTotal != 0) {
+            int key = monthKey(YearMonth.from(date));
+            int[] old = months.get(key);
+            int done = (old != null ? old[0] : 0) + deltaDone;
+            int total = (old != null ? old[1] : 0) + deltaTotal;
+            m = months.with(key, total > 0 ? new int[]{Math.max(0, done), total} : null);
+        }
+        return new ScheduleSnapshot(d, m, version + 1);
+    }
+
+    public static Item[] itemsOf(List<Task> tasks) {
+        Item[] items = new Item[tasks.size()];
+        for (int i = 0; i < items.length; i++) items[i] = new Item(tasks.get(i));
+        return items;
+    }
+}
@@ -0,0 +1,550 @@
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Tasks keyed by date in date order, plus per-month rollups.
+ *
+ * Days live in a sorted map, so week, month and year questions are answered
+ * by {@code subMap} views in O(log n + k) instead of scanning every stored
+ * day. The store also owns the {@link ScheduleIndex} used for overlap checks
+ * and keeps it in step with the lists. Each day's list is a {@link DayTasks},
+ * so it is always in start-time order.
+ *
+ * Days older than {@link #HOT_DAYS} can be packed into a cold tier of
+ * {@link CompactDay} tables with {@link #freezeOldDays()}. Opening one day
+ * through {@link #tasksFor}, {@link #listFor} or {@link #view} thaws it back
+ * into Tasks first. Questions over many days ({@link #totals}, slot search)
+ * read the packed arrays instead, so they never undo the packing; the range
+ * views list hot days only.
+ *
+ * Writers may run on several threads at once (CLI, GUI, importers). Each
+ * date maps to one of {@link #STRIPES} {@link StampedLock}s and a change to a
+ * date holds its stripe's write lock, so writers on different days proceed
+ * in parallel. {@link #addIfNoOverlap} and {@link #move} are atomic compound
+ * operations; {@link #copyOf} and {@link #count} use optimistic reads and
+ * only take the read lock when a writer got in the way. The locks are not
+ * reentrant, so listeners are always called after they are released.
+ *
+ * After every change the store publishes an immutable {@link ScheduleSnapshot}
+ * through one atomic reference; the monthly rollups live in the snapshot and
+ * move in the same compare-and-set. Other threads read {@link #snapshot()}
+ * without locks.
+ */
+public final class ScheduleStore implements ScheduleIndex.ChangeListener {
+    public static final int STRIPES = 64;
+    // Days before today minus this many stay packed until something reads them
+    public static final int HOT_DAYS = 7;
+
+    public final ConcurrentNavigableMap<LocalDate, List<Task>> days = new ConcurrentSkipListMap<>();
+    public final ScheduleIndex index = new ScheduleIndex();
+    public final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    // Packed days that are not in the hot map; titles are interned across them
+    public final ConcurrentNavigableMap<LocalDate, CompactDay> cold = new ConcurrentSkipListMap<>();
+    public final CompactDay.TitlePool titles = new CompactDay.TitlePool();
+    public final StampedLock[] stripes = new StampedLock[STRIPES];
+    // The edit() this thread is inside, if any; taskChanged then skips locking
+    public final ThreadLocal<Edit> editing = new ThreadLocal<>();
+    // Latest published snapshot
+    public final AtomicReference<ScheduleSnapshot> current = new AtomicReference<>(ScheduleSnapshot.EMPTY);
+
+    /**
+     * Told about every task added, edited, completed or removed, and when the
+     * whole store was reloaded. Called on the thread that made the change.
+     */
+    public interface Listener {
+        void taskChanged(LocalDate date, Task task, boolean removed);
+
+        default void storeReloaded() {}
+    }
+
+    public ScheduleStore() {
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new StampedLock();
+        index.listener = this;
+    }
+
+    // Top bits of a multiplicative hash, so neighbouring days use different stripes
+    public static int stripeOf(LocalDate date) {
+        return (int) ((date.toEpochDay() * 0x9E3779B97F4A7C15L) >>> 58);
+    }
+
+    public StampedLock lockFor(LocalDate date) {
+        return stripes[stripeOf(date)];
+    }
+
+    /**
+     * Tasks for a date, or an empty list when nothing is scheduled. The list
+     * is live; threads other than the date's writer should use {@link #copyOf}.
+     */
+    public List<Task> tasksFor(LocalDate date) {
+        List<Task> list = days.get(date);
+        if (list == null && cold.containsKey(date)) list = thaw(date);
+        return list != null ? list : Collections.emptyList();
+    }
+
+    /**
+     * The date's task list, created empty if needed. Add and remove tasks
+     * through {@link #add} and {@link #remove} so the rollups stay correct.
+     */
+    public List<Task> listFor(LocalDate date) {
+        if (cold.containsKey(date)) return thaw(date);
+        StampedLock lock = lockFor(date);
+        long stamp = lock.writeLock();
+        try {
+            return days.computeIfAbsent(date, d -> new DayTasks());
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * A private copy of the date's hot tasks in order, safe on any thread.
+     */
+    public List<Task> copyOf(LocalDate date) {
+        StampedLock lock = lockFor(date);
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                List<Task> copy = copyList(days.get(date));
+                if (lock.validate(stamp)) return copy;
+            } catch (RuntimeException ex) {
+                // Torn read while a writer shifted the list; retry under the lock
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return copyList(days.get(date));
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Number of hot tasks on a date.
+     */
+    public int count(LocalDate date) {
+        StampedLock lock = lockFor(date);
+        long stamp = lock.tryOptimisticRead();
+        List<Task> list = days.get(date);
+        int n = list == null ? 0 : list.size();
+        if (stamp != 0 && lock.validate(stamp)) return n;
+        stamp = lock.readLock();
+        try {
+            list = days.get(date);
+            return list == null ? 0 : list.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public static List<Task> copyList(List<Task> list) {
+        return list == null ? new ArrayList<>() : new ArrayList<>(Arrays.asList(list.toArray(new Task[0])));
+    }
+
+    /**
+     * Pack every hot day older than {@link #HOT_DAYS} into the cold tier.
+     */
+    public int freezeOldDays() {
+        return freezeBefore(LocalDate.now().minusDays(HOT_DAYS));
+    }
+
+    /**
+     * Pack every hot day before {@code cutoff} into the cold tier and drop
+     * its index. Returns the number of days packed.
+     */
+    public int freezeBefore(LocalDate cutoff) {
+        int n = 0;
+        for (LocalDate date : new ArrayList<>(days.headMap(cutoff, false).keySet())) {
+            StampedLock lock = lockFor(date);
+            long stamp = lock.writeLock();
+            try {
+                List<Task> list = days.remove(date);
+                if (list == null) continue;
+                if (!list.isEmpty()) cold.put(date, CompactDay.pack(list, titles));
+                index.dropDay(date);
+                // Month totals are unchanged: packed days still count
+                publish(date, 0, 0);
+                n++;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Move a cold day back into the hot map (re-indexed) and return its list.
+     */
+    public List<Task> thaw(LocalDate date) {
+        StampedLock lock = lockFor(date);
+        long stamp = lock.writeLock();
+        try {
+            CompactDay c = cold.remove(date);
+            if (c == null) return days.computeIfAbsent(date, d -> new DayTasks());
+            DayTasks list = c.thaw();
+            days.put(date, list);
+            DayIndex d = index.day(date);
+            for (Task t : list) d.add(t);
+            publish(date, 0, 0);
+            return list;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void add(LocalDate date, Task t) {
+        if (cold.containsKey(date)) thaw(date);
+        StampedLock lock = lockFor(date);
+        long stamp = lock.writeLock();
+        try {
+            insert(date, t);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        fire(date, t, false);
+    }
+
+    /**
+     * Add the task unless it overlaps a pending task on that date. The check
+     * and the insert happen under one lock, so two threads cannot both take
+     * the same slot. Returns false (and adds nothing) on a clash.
+     */
+    public boolean addIfNoOverlap(LocalDate date, Task t) {
+        if (cold.containsKey(date)) thaw(date);
+        StampedLock lock = lockFor(date);
+        long stamp = lock.writeLock();
+        try {
+            if (index.hasOverlap(date, t.getStartTime(), t.getEndTime(), t)) return false;
+            insert(date, t);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        fire(date, t, false);
+        return true;
+    }
+
+    /**
+     * Remove a task (matched by identity). Returns false if it was not on that date.
+     */
+    public boolean remove(LocalDate date, Task t) {
+        StampedLock lock = lockFor(date);
+        long stamp = lock.writeLock();
+        try {
+            if (!delete(date, t)) return false;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        fire(date, t, true);
+        return true;
+    }
+
+    /**
+     * Move a task to another date in one step: anyone holding either date's
+     * lock sees it on exactly one of them. Returns false if it was not on
+     * {@code from}.
+     */
+    public boolean move(Task t, LocalDate from, LocalDate to) {
+        if (from.equals(to)) return tasksFor(from).contains(t);
+        if (cold.containsKey(to)) thaw(to);
+        int a = stripeOf(from), b = stripeOf(to);
+        // Always lock the lower stripe first so opposite moves cannot deadlock
+        StampedLock first = stripes[Math.min(a, b)];
+        StampedLock second = stripes[Math.max(a, b)];
+        long s1 = first.writeLock();
+        long s2 = a != b ? second.writeLock() : 0L;
+        try {
+            if (!delete(from, t)) return false;
+            insert(to, t);
+        } finally {
+            if (a != b) second.unlockWrite(s2);
+            first.unlockWrite(s1);
+        }
+        fire(from, t, true);
+        fire(to, t, false);
+        return true;
+    }
+
+    // Caller holds the date's write lock
+    public void insert(LocalDate date, Task t) {
+        days.computeIfAbsent(date, d -> new DayTasks()).add(t);
+        index.add(date, t);
+        publish(date, t.isDone() ? 1 : 0, 1);
+    }
+
+    // Caller holds the date's write lock
+    public boolean delete(LocalDate date, Task t) {
+        List<Task> list = days.get(date);
+        if (list == null || !list.removeIf(x -> x == t)) return false;
+        index.remove(date, t);
+        publish(date, t.isDone() ? -1 : 0, -1);
+        return true;
+    }
+
+    /**
+     * Re-index every stored task and rebuild the snapshot and its rollups.
+     * Call after the map was filled in bulk, e.g. by journal replay; plain
+     * lists put there are converted to ordered day lists.
+     */
+    public void rebuild() {
+        long[] stamps = new long[STRIPES];
+        for (int i = 0; i < STRIPES; i++) stamps[i] = stripes[i].writeLock();
+        try {
+            for (Map.Entry<LocalDate, List<Task>> e : days.entrySet()) {
+                // Skip-list entries are read-only, so replace through the map
+                if (!(e.getValue() instanceof DayTasks)) days.put(e.getKey(), new DayTasks(e.getValue()));
+            }
+            index.addAll(days);
+            publishAll();
+        } finally {
+            for (int i = STRIPES - 1; i >= 0; i--) stripes[i].unlockWrite(stamps[i]);
+        }
+        for (Listener l : listeners) l.storeReloaded();
+    }
+
+    /**
+     * Replace every hot and packed day with {@code loaded}, e.g. the tasks
+     * replayed from another user's journal, and rebuild the index and the
+     * snapshot. Listeners are told the store was reloaded.
+     */
+    public void replaceAll(Map<LocalDate, List<Task>> loaded) {
+        long[] stamps = new long[STRIPES];
+        for (int i = 0; i < STRIPES; i++) stamps[i] = stripes[i].writeLock();
+        try {
+            days.clear();
+            cold.clear();
+            index.clear();
+            for (Map.Entry<LocalDate, List<Task>> e : loaded.entrySet()) {
+                if (!e.getValue().isEmpty()) days.put(e.getKey(), new DayTasks(e.getValue()));
+            }
+            index.addAll(days);
+            publishAll();
+        } finally {
+            for (int i = STRIPES - 1; i >= 0; i--) stripes[i].unlockWrite(stamps[i]);
+        }
+        for (Listener l : listeners) l.storeReloaded();
+    }
+
+    /**
+     * Apply an edit to a task of {@code date} (the setter calls in
+     * {@code change}) while holding the date's stripe lock. The day index,
+     * the list order and the snapshot then move together with the setter,
+     * so {@link #addIfNoOverlap} on that day never checks against a
+     * half-applied edit. Listeners hear about it once the lock is released.
+     */
+    public void edit(LocalDate date, Task t, Runnable change) {
+        if (cold.containsKey(date)) thaw(date);
+        StampedLock lock = lockFor(date);
+        long stamp = lock.writeLock();
+        Edit e = new Edit(date);
+        editing.set(e);
+        try {
+            change.run();
+        } finally {
+            editing.remove();
+            lock.unlockWrite(stamp);
+            fire(date, t, false);
+            for (int i = 0; i < e.dates.size(); i++) fire(e.dates.get(i), e.tasks.get(i), false);
+        }
+    }
+
+    /**
+     * An edit in progress: the date whose stripe is held, and changes to
+     * other dates on that stripe whose events wait until it is released.
+     */
+    public static final class Edit {
+        public final LocalDate date;
+        public final List<LocalDate> dates = new ArrayList<>();
+        public final List<Task> tasks = new ArrayList<>();
+
+        public Edit(LocalDate date) {
+            this.date = date;
+        }
+    }
+
+    // Edits and done toggles arrive here through the index's observer chain
+    @Override
+    public void taskChanged(LocalDate date, Task t, LocalTime oldStart, LocalTime oldEnd, boolean oldDone) {
+        Edit held = editing.get();
+        if (held != null && stripeOf(held.date) == stripeOf(date)) {
+            // Inside edit(): the stripe is already ours (the lock is not reentrant);
+            // edit() fires for its own date, and for any other once it unlocks
+            applyChange(date, t, oldStart, oldDone);
+            if (!held.date.equals(date)) {
+                held.dates.add(date);
+                held.tasks.add(t);
+            }
+            return;
+        }
+        StampedLock lock = lockFor(date);
+        long stamp = lock.writeLock();
+        try {
+            applyChange(date, t, oldStart, oldDone);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        fire(date, t, false);
+    }
+
+    // Caller holds the date's write lock
+    public void applyChange(LocalDate date, Task t, LocalTime oldStart, boolean oldDone) {
+        if (!Objects.equals(oldStart, t.getStartTime())) {
+            List<Task> list = days.get(date);
+            if (list instanceof DayTasks) ((DayTasks) list).reposition(t);
+        }
+        int deltaDone = t.isDone() == oldDone ? 0 : (t.isDone() ? 1 : -1);
+        publish(date, deltaDone, 0);
+    }
+
+    public void fire(LocalDate date, Task t, boolean removed) {
+        for (Listener l : listeners) l.taskChanged(date, t, removed);
+    }
+
+    /**
+     * {done, total} for a month; {0, 0} when it has no tasks.
+     */
+    public int[] monthTotals(YearMonth month) {
+        return snapshot().month(month);
+    }
+
+    public int[] monthTotals(int year, int month) {
+        return monthTotals(YearMonth.of(year, month));
+    }
+
+    public ScheduleSnapshot snapshot() {
+        return current.get();
+    }
+
+    /**
+     * Published items for a date, thawing it first if it was packed.
+     */
+    public List<ScheduleSnapshot.Item> view(LocalDate date) {
+        if (cold.containsKey(date)) thaw(date);
+        return snapshot().day(date);
+    }
+
+    // --- overlap and slot queries (a single packed day is thawed so its index exists) ---
+
+    public boolean hasOverlap(LocalDate date, LocalTime start, LocalTime end, Task exclude) {
+        if (cold.containsKey(date)) thaw(date);
+        return index.hasOverlap(date, start, end, exclude);
+    }
+
+    public List<Task> conflicts(LocalDate date, LocalTime start, LocalTime end) {
+        if (cold.containsKey(date)) thaw(date);
+        return index.conflicts(date, start, end);
+    }
+
+    public LocalTime findFreeSlot(LocalDate date, int durationMinutes) {
+        if (cold.containsKey(date)) thaw(date);
+        return index.findFreeSlot(date, durationMinutes);
+    }
+
+    /**
+     * Free slots from {@code fromDate} through {@code toDate}; see
+     * {@link ScheduleIndex#findSlots}. Packed days stay packed: their busy
+     * minutes are read from the arrays.
+     */
+    public List<LocalDateTime> findSlots(LocalDate fromDate, LocalDate toDate, int durationMinutes, int maxResults) {
+        return index.findSlots(fromDate, toDate, durationMinutes, maxResults, cold);
+    }
+
+    /**
+     * Publish the date's tasks and move its month's totals by the deltas.
+     * The caller holds the date's write lock, so the items stay current
+     * while the compare-and-set retries against other dates' publishes.
+     */
+    public void publish(LocalDate date, int deltaDone, int deltaTotal) {
+        List<Task> list = days.get(date);
+        ScheduleSnapshot.Item[] items = list == null ? null : ScheduleSnapshot.itemsOf(list);
+        current.updateAndGet(s -> s.withDay(date, items, deltaDone, deltaTotal));
+    }
+
+    // Rebuild the snapshot from scratch after a bulk load; caller holds every stripe
+    public void publishAll() {
+        ScheduleSnapshot.IntTrie<ScheduleSnapshot.Item[]> d = ScheduleSnapshot.IntTrie.empty();
+        Map<Integer, int[]> totals = new HashMap<>();
+        for (Map.Entry<LocalDate, List<Task>> e : days.entrySet()) {
+            if (e.getValue().isEmpty()) continue;
+            d = d.with((int) e.getKey().toEpochDay(), ScheduleSnapshot.itemsOf(e.getValue()));
+            int[] r = totals.computeIfAbsent(ScheduleSnapshot.monthKey(YearMonth.from(e.getKey())), k -> new int[2]);
+            for (Task t : e.getValue()) {
+                if (t.isDone()) r[0]++;
+                r[1]++;
+            }
+        }
+        // Packed days are counted straight from their arrays
+        for (Map.Entry<LocalDate, CompactDay> e : cold.entrySet()) {
+            int[] r = totals.computeIfAbsent(ScheduleSnapshot.monthKey(YearMonth.from(e.getKey())), k -> new int[2]);
+            r[0] += e.getValue().doneCount();
+            r[1] += e.getValue().size();
+        }
+        ScheduleSnapshot.IntTrie<int[]> m = ScheduleSnapshot.IntTrie.empty();
+        for (Map.Entry<Integer, int[]> e : totals.entrySet()) m = m.with(e.getKey(), e.getValue());
+        current.set(new ScheduleSnapshot(d, m, current.get().version + 1));
+    }
+
+    // --- range views (read-only, backed by the store) ---
+
+    /**
+     * Hot days from {@code from} to {@code to}, both inclusive, in date
+     * order. Packed days are left packed and not listed; open one with
+     * {@link #tasksFor}, or count a range with {@link #totals}.
+     */
+    public NavigableMap<LocalDate, List<Task>> range(LocalDate from, LocalDate to) {
+        return Collections.unmodifiableNavigableMap(days.subMap(from, true, to, true));
+    }
+
+    // Monday to Sunday of the week containing date
+    public NavigableMap<LocalDate, List<Task>> week(LocalDate date) {
+        LocalDate monday = date.minusDays(date.getDayOfWeek().getValue() - DayOfWeek.MONDAY.getValue());
+        return range(monday, monday.plusDays(6));
+    }
+
+    public NavigableMap<LocalDate, List<Task>> month(YearMonth month) {
+        return range(month.atDay(1), month.atEndOfMonth());
+    }
+
+    public NavigableMap<LocalDate, List<Task>> year(int year) {
+        return range(LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31));
+    }
+
+    /**
+     * {done, total} over {@code from} to {@code to}, both inclusive. Hot days
+     * are counted from the published snapshot and packed days from their
+     * arrays, so nothing is thawed.
+     */
+    public int[] totals(LocalDate from, LocalDate to) {
+        int[] r = new int[2];
+        ScheduleSnapshot snap = snapshot();
+        for (LocalDate d : days.subMap(from, true, to, true).keySet()) {
+            ScheduleSnapshot.Item[] items = snap.days.get((int) d.toEpochDay());
+            if (items == null) continue;
+            for (ScheduleSnapshot.Item it : items) {
+                if (it.done) r[0]++;
+                r[1]++;
+            }
+        }
+        for (CompactDay c : cold.subMap(from, true, to, true).values()) {
+            r[0] += c.doneCount();
+            r[1] += c.size();
+        }
+        return r;
+    }
+
+    public int[] weekTotals(LocalDate date) {
+        LocalDate monday = date.minusDays(date.getDayOfWeek().getValue() - DayOfWeek.MONDAY.getValue());
+        return totals(monday, monday.plusDays(6));
+    }
+
+    public int[] yearTotals(int year) {
+        return totals(LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31));
+    }
+}
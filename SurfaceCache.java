@@ -0,0 +1,187 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.geom.RoundRectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Pre-rendered backgrounds for the gradient header and the styled buttons.
+ *
+ * Each surface is rasterised once, with antialiasing, into an image
+ * compatible with the screen (Java2D keeps such images in video memory
+ * where it can, and restores them itself, so there is no VolatileImage
+ * content loss to handle). Later paints just copy it. Surfaces are keyed
+ * by everything that changes their pixels: kind, size, device scale,
+ * button state (normal, hover, pressed), colours and corner arc. A resized
+ * component or a new theme colour therefore misses and renders a fresh
+ * surface, and the stale ones fall out of a small LRU. {@link #clear()}
+ * drops everything when the theme is switched wholesale.
+ */
+public final class SurfaceCache {
+    public static final int MAX_ENTRIES = 64;
+    // One cache for every window; painting happens on the EDT only
+    public static final SurfaceCache SHARED = new SurfaceCache(MAX_ENTRIES);
+
+    public static final int GRADIENT = 0;
+    public static final int BUTTON = 1;
+
+    public static final int NORMAL = 0;
+    public static final int HOVER = 1;
+    public static final int PRESSED = 2;
+
+    /**
+     * Everything that decides a surface's pixels.
+     */
+    public static final class Key {
+        public final int kind;
+        public final int width;
+        public final int height;
+        public final int scale;  // device scale in percent
+        public final int state;
+        public final int from;
+        public final int to;
+        public final int arc;
+
+        public Key(int kind, int width, int height, int scale, int state, Color from, Color to, int arc) {
+            this.kind = kind;
+            this.width = width;
+            this.height = height;
+            this.scale = scale;
+            this.state = state;
+            this.from = from.getRGB();
+            this.to = to.getRGB();
+            this.arc = arc;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return kind == k.kind && width == k.width && height == k.height && scale == k.scale
+                    && state == k.state && from == k.from && to == k.to && arc == k.arc;
+        }
+
+        @Override
+        public int hashCode() {
+            int h = kind;
+            h = h * 31 + width;
+            h = h * 31 + height;
+            h = h * 31 + scale;
+            h = h * 31 + state;
+            h = h * 31 + from;
+            h = h * 31 + to;
+            return h * 31 + arc;
+        }
+    }
+
+    public final Map<Key, Image> images;
+    public long hits = 0;
+    public long misses = 0;
+    public long evictions = 0;
+
+    public SurfaceCache(int maxEntries) {
+        images = new LinkedHashMap<Key, Image>(16, 0.75f, true) {
+            public static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Image> eldest) {
+                if (size() <= maxEntries) return false;
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    public static int stateOf(AbstractButton b) {
+        ButtonModel m = b.getModel();
+        if (m.isPressed() && m.isArmed()) return PRESSED;
+        if (m.isRollover()) return HOVER;
+        return NORMAL;
+    }
+
+    /**
+     * Paint a styled button's rounded gradient background: the colour's
+     * brighter shade at the top to its darker shade at the bottom, flipped
+     * while pressed and lifted slightly on hover.
+     */
+    public void paintButton(Graphics g, AbstractButton b, Color base, int arc) {
+        int state = stateOf(b);
+        Color c = state == HOVER ? mix(base, Color.WHITE, 0.12f) : base;
+        Color top = state == PRESSED ? c.darker() : c.brighter();
+        Color bottom = state == PRESSED ? c.brighter() : c.darker();
+        paint(g, BUTTON, b.getWidth(), b.getHeight(), state, top, bottom, arc);
+    }
+
+    /**
+     * Paint a component-sized diagonal gradient (top-left to bottom-right).
+     */
+    public void paintGradient(Graphics g, JComponent c, Color from, Color to) {
+        paint(g, GRADIENT, c.getWidth(), c.getHeight(), NORMAL, from, to, 0);
+    }
+
+    public void paint(Graphics g, int kind, int w, int h, int state, Color from, Color to, int arc) {
+        if (w <= 0 || h <= 0) return;
+        Graphics2D g2d = (Graphics2D) g;
+        double sx = g2d.getTransform().getScaleX(), sy = g2d.getTransform().getScaleY();
+        Key key = new Key(kind, w, h, (int) Math.round(sx * 100), state, from, to, arc);
+        Image img = images.get(key);
+        if (img != null) {
+            hits++;
+        } else {
+            misses++;
+            img = render(g2d.getDeviceConfiguration(), key, sx, sy, from, to);
+            images.put(key, img);
+        }
+        g2d.drawImage(img, 0, 0, w, h, null);
+    }
+
+    // Rasterise at device resolution so scaled displays stay sharp
+    public static Image render(GraphicsConfiguration gc, Key k, double sx, double sy, Color from, Color to) {
+        int pw = (int) Math.ceil(k.width * sx), ph = (int) Math.ceil(k.height * sy);
+        // A gradient covers every pixel, so it can be copied without blending
+        boolean opaque = k.kind == GRADIENT && (k.from >>> 24) == 0xFF && (k.to >>> 24) == 0xFF;
+        BufferedImage img = gc != null
+                ? gc.createCompatibleImage(pw, ph, opaque ? Transparency.OPAQUE : Transparency.TRANSLUCENT)
+                : new BufferedImage(pw, ph, opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g2d = img.createGraphics();
+        g2d.scale(sx, sy);
+        if (k.kind == BUTTON) {
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2d.setPaint(new GradientPaint(0, 0, from, 0, k.height, to));
+            g2d.fill(new RoundRectangle2D.Double(0, 0, k.width, k.height, k.arc, k.arc));
+        } else {
+            g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g2d.setPaint(new GradientPaint(0, 0, from, k.width, k.height, to));
+            g2d.fillRect(0, 0, k.width, k.height);
+        }
+        g2d.dispose();
+        return img;
+    }
+
+    public static Color mix(Color a, Color b, float t) {
+        return new Color(
+                Math.round(a.getRed() + (b.getRed() - a.getRed()) * t),
+                Math.round(a.getGreen() + (b.getGreen() - a.getGreen()) * t),
+                Math.round(a.getBlue() + (b.getBlue() - a.getBlue()) * t),
+                a.getAlpha());
+    }
+
+    /**
+     * Drop every surface, e.g. after a theme change.
+     */
+    public void clear() {
+        evictions += images.size();
+        images.clear();
+    }
+
+    public double hitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    public String stats() {
+        return String.format("%d surfaces, %d hits, %d misses (%.1f%% hit rate), %d evicted",
+                images.size(), hits, misses, hitRate() * 100, evictions);
+    }
+}
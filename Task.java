@@ -1,18 +1,27 @@
 import java.time.Duration;
 import java.time.LocalTime;
-import java.util.UUID;
 
 /**
  * Task model representing a scheduled task with optional start/end times.
  * Contains lightweight validation to avoid invalid states.
  */
 public class Task {
-    public final UUID id;
+    // 64-bit id from TaskIds (time-ordered by default)
+    public final long id;
     public String title;
     public int durationMinutes;
     public LocalTime startTime;
     public LocalTime endTime;
     public boolean done;
+    // Index that owns this task (e.g. its day's DayIndex); told about time/done changes
+    public Observer observer;
+
+    /**
+     * Notified after a task's start, end or done state changes, with the old values.
+     */
+    public interface Observer {
+        void taskChanged(Task task, LocalTime oldStart, LocalTime oldEnd, boolean oldDone);
+    }
 
     /**
      * Create a task with explicit start and end times. Title must be non-empty.
@@ -22,7 +31,7 @@ public class Task {
         if (startTime != null && endTime != null && !endTime.isAfter(startTime))
             throw new IllegalArgumentException("End time must be after start time");
 
-        this.id = UUID.randomUUID();
+        this.id = TaskIds.next();
         this.title = title.trim();
         this.startTime = startTime;
         this.endTime = endTime;
@@ -35,7 +44,7 @@ public class Task {
      */
     public Task(String title, int durationMinutes) {
         if (title == null || title.trim().isEmpty()) throw new IllegalArgumentException("Task title cannot be empty");
-        this.id = UUID.randomUUID();
+        this.id = TaskIds.next();
         this.title = title.trim();
         this.durationMinutes = Math.max(0, durationMinutes);
         this.startTime = null;
@@ -43,6 +52,19 @@ public class Task {
         this.done = false;
     }
 
+    /**
+     * Restore a task exactly as it was persisted (used by journal replay).
+     */
+    public Task(long id, String title, LocalTime startTime, LocalTime endTime, int durationMinutes, boolean done) {
+        if (title == null || title.trim().isEmpty()) throw new IllegalArgumentException("Task title cannot be empty");
+        this.id = id;
+        this.title = title.trim();
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.durationMinutes = Math.max(0, durationMinutes);
+        this.done = done;
+    }
+
     public int computeDurationMinutes() {
         if (startTime != null && endTime != null) {
             return (int) Duration.between(startTime, endTime).toMinutes();
@@ -50,13 +72,16 @@ public class Task {
         return durationMinutes;
     }
 
-    public UUID getId() { return id; }
+    public long getId() { return id; }
 
     public String getTitle() { return title; }
 
     public void setTitle(String title) {
         if (title == null || title.trim().isEmpty()) throw new IllegalArgumentException("Task title cannot be empty");
+        String old = this.title;
         this.title = title.trim();
+        // Published snapshots carry the title, so a rename republishes the day
+        if (!this.title.equals(old)) notifyObserver(startTime, endTime, done);
     }
 
     public LocalTime getStartTime() { return startTime; }
@@ -64,8 +89,10 @@ public class Task {
     public void setStartTime(LocalTime startTime) {
         if (startTime != null && endTime != null && !endTime.isAfter(startTime))
             throw new IllegalArgumentException("End time must be after start time");
+        LocalTime oldStart = this.startTime;
         this.startTime = startTime;
         this.durationMinutes = computeDurationMinutes();
+        notifyObserver(oldStart, endTime, done);
     }
 
     public LocalTime getEndTime() { return endTime; }
@@ -73,8 +100,25 @@ public class Task {
     public void setEndTime(LocalTime endTime) {
         if (startTime != null && endTime != null && !endTime.isAfter(startTime))
             throw new IllegalArgumentException("End time must be after start time");
+        LocalTime oldEnd = this.endTime;
         this.endTime = endTime;
         this.durationMinutes = computeDurationMinutes();
+        notifyObserver(startTime, oldEnd, done);
+    }
+
+    /**
+     * Replace both times at once so the pair is validated together rather than
+     * against the previous value of the other bound.
+     */
+    public void setTimes(LocalTime startTime, LocalTime endTime) {
+        if (startTime != null && endTime != null && !endTime.isAfter(startTime))
+            throw new IllegalArgumentException("End time must be after start time");
+        LocalTime oldStart = this.startTime;
+        LocalTime oldEnd = this.endTime;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.durationMinutes = computeDurationMinutes();
+        notifyObserver(oldStart, oldEnd, done);
     }
 
     public int getDurationMinutes() { return durationMinutes; }
@@ -83,7 +127,16 @@ public class Task {
 
     public boolean isDone() { return done; }
 
-    public void setDone(boolean done) { this.done = done; }
+    public void setDone(boolean done) {
+        boolean oldDone = this.done;
+        this.done = done;
+        if (oldDone != done) notifyObserver(startTime, endTime, oldDone);
+    }
+
+    public void notifyObserver(LocalTime oldStart, LocalTime oldEnd, boolean oldDone) {
+        Observer o = observer;
+        if (o != null) o.taskChanged(this, oldStart, oldEnd, oldDone);
+    }
 
     @Override
     public String toString() {
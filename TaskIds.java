@@ -0,0 +1,100 @@
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Source of 64-bit task ids.
+ *
+ * The default {@link TimeOrdered} generator needs no SecureRandom and no
+ * allocation: an id is {@code (millis since 2020 << 22) | (instance << 12) | seq}.
+ * Ids from one process are strictly increasing, and the random 10-bit
+ * instance number keeps two runs that start in the same millisecond apart,
+ * so ids stay unique across restarts. Generated ids are always positive.
+ *
+ * Ids that were UUIDs in older journals are mapped with {@link #fromUuid},
+ * which is deterministic (replaying the same file always yields the same
+ * ids) and always negative, so it can never collide with a generated id.
+ */
+public final class TaskIds {
+
+    public interface Generator {
+        long next();
+    }
+
+    public static volatile Generator generator = new TimeOrdered();
+
+    public static long next() {
+        return generator.next();
+    }
+
+    /**
+     * Swap the id source (e.g. a fixed sequence for reproducible imports).
+     */
+    public static void setGenerator(Generator g) {
+        if (g == null) throw new IllegalArgumentException("Generator cannot be null");
+        generator = g;
+    }
+
+    /**
+     * Tell the generator about an id already in use (e.g. the largest one
+     * replayed from disk), so every later id is greater than it.
+     */
+    public static void seen(long id) {
+        Generator g = generator;
+        if (g instanceof TimeOrdered) ((TimeOrdered) g).seen(id);
+    }
+
+    /**
+     * Stable 64-bit id for a legacy UUID.
+     */
+    public static long fromUuid(UUID u) {
+        long h = u.getMostSignificantBits() * 0x9E3779B97F4A7C15L;
+        h ^= Long.rotateLeft(u.getLeastSignificantBits(), 31) * 0xC2B2AE3D27D4EB4FL;
+        h ^= h >>> 29;
+        return h | Long.MIN_VALUE;
+    }
+
+    public static final class TimeOrdered implements Generator {
+        public static final long EPOCH_MILLIS = 1577836800000L; // 2020-01-01T00:00Z
+        public static final int SEQ_BITS = 12;
+        public static final int INSTANCE_BITS = 10;
+
+        public final long instance;
+        public long lastMillis = -1;
+        public long seq = 0;
+
+        public TimeOrdered() {
+            this(ThreadLocalRandom.current().nextInt(1 << INSTANCE_BITS));
+        }
+
+        public TimeOrdered(long instance) {
+            this.instance = instance & ((1 << INSTANCE_BITS) - 1);
+        }
+
+        @Override
+        public synchronized long next() {
+            long now = System.currentTimeMillis() - EPOCH_MILLIS;
+            if (now > lastMillis) {
+                lastMillis = now;
+                seq = 0;
+            } else if (++seq >= (1 << SEQ_BITS)) {
+                // Sequence exhausted (or the clock stepped back): borrow the next millisecond
+                lastMillis++;
+                seq = 0;
+            }
+            return (lastMillis << (INSTANCE_BITS + SEQ_BITS)) | (instance << SEQ_BITS) | seq;
+        }
+
+        /**
+         * Move the clock past {@code id}'s millisecond when it is ahead of
+         * ours; the next id then borrows the following millisecond. Negative
+         * (UUID-mapped) ids are ignored.
+         */
+        public synchronized void seen(long id) {
+            if (id <= 0) return;
+            long millis = id >>> (INSTANCE_BITS + SEQ_BITS);
+            if (millis < lastMillis) return;
+            lastMillis = millis;
+            seq = (1 << SEQ_BITS) - 1;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.geom.RoundRectangle2D;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Day timeline for the View Schedule dialog: an hour ruler with one block
+ * per timed task, one row per task in start order.
+ *
+ * The block geometry and label strings are computed once per published
+ * version of the day (and per panel width) into parallel arrays. A repaint
+ * compares the day's published item array by identity and, if unchanged,
+ * only draws: rows have a fixed height, so the rows intersecting
+ * {@code g.getClipBounds()} are found by arithmetic and nothing else is
+ * visited. Fonts, colours and the block shape are shared, not rebuilt per
+ * paint.
+ */
+public class TimelinePanel extends JPanel {
+    public static final long serialVersionUID = 1L;
+
+    public static final int MARGIN = 20;
+    public static final int RULER_Y = 20;
+    public static final int ROW_TOP = RULER_Y + 10;
+    public static final int ROW_HEIGHT = 50;
+    public static final int BLOCK_HEIGHT = 30;
+    public static final int MIN_HEIGHT = 300;
+
+    public static final Font HOUR_FONT = new Font("Arial", Font.PLAIN, 10);
+    public static final Font TASK_FONT = new Font("Arial", Font.BOLD, 12);
+    public static final Color RULER_COLOR = new Color(150, 150, 150);
+    public static final Color TICK_COLOR = new Color(180, 180, 180);
+    public static final Color DONE_COLOR = new Color(46, 204, 113);
+    public static final String[] HOUR_LABELS = new String[24];
+
+    static {
+        for (int h = 0; h < 24; h++) HOUR_LABELS[h] = String.format("%02d", h);
+    }
+
+    public final transient ScheduleStore store;
+    public final Color pendingColor;
+    public LocalDate date;
+
+    // Layout of the current day, rebuilt when the items or the width change
+    public transient ScheduleSnapshot.Item[] laidOutItems;
+    public int laidOutWidth = -1;
+    public int rows;
+    public int[] blockX = new int[0];
+    public int[] blockW = new int[0];
+    public boolean[] done = new boolean[0];
+    public String[] titles = new String[0];
+    public String[] times = new String[0];
+    public final transient RoundRectangle2D.Double block = new RoundRectangle2D.Double();
+    public int layouts = 0;
+
+    public TimelinePanel(ScheduleStore store, LocalDate date, Color pendingColor) {
+        this.store = store;
+        this.pendingColor = pendingColor;
+        this.date = date;
+        setBackground(Colors.PANEL_BG);
+    }
+
+    /**
+     * Show another day. A packed (cold) day is thawed here, once, rather
+     * than on every paint.
+     */
+    public void setDate(LocalDate d) {
+        date = d;
+        store.view(d);
+        laidOutItems = null;
+        revalidate();
+        repaint();
+    }
+
+    // The day's published items; the array identity changes whenever the day is republished
+    public ScheduleSnapshot.Item[] currentItems() {
+        ScheduleSnapshot.Item[] items = store.snapshot().days.get((int) date.toEpochDay());
+        return items != null ? items : new ScheduleSnapshot.Item[0];
+    }
+
+    /**
+     * Recompute block positions and labels if the day or the width changed.
+     * Returns true when the layout was rebuilt.
+     */
+    public boolean ensureLayout() {
+        ScheduleSnapshot.Item[] items = store.snapshot().days.get((int) date.toEpochDay());
+        int width = getWidth() - 2 * MARGIN;
+        if (laidOutItems != null && (items == laidOutItems || (items == null && laidOutItems.length == 0))
+                && width == laidOutWidth) {
+            return false;
+        }
+        if (items == null) items = new ScheduleSnapshot.Item[0];
+        // Untimed tasks sort last and are not drawn
+        int n = 0;
+        while (n < items.length && items[n].getStartTime() != null) n++;
+        int[] xs = new int[n], ws = new int[n];
+        boolean[] ds = new boolean[n];
+        String[] ts = new String[n], tm = new String[n];
+        for (int i = 0; i < n; i++) {
+            ScheduleSnapshot.Item it = items[i];
+            LocalTime s = it.getStartTime();
+            long startMinutes = s.getHour() * 60 + s.getMinute();
+            xs[i] = MARGIN + (int) ((startMinutes * width) / (24 * 60));
+            ws[i] = Math.max(3, (int) (((long) it.getDurationMinutes() * width) / (24 * 60)));
+            ds[i] = it.isDone();
+            ts[i] = it.getTitle();
+            tm[i] = s + (it.getEndTime() != null ? " - " + it.getEndTime() : "");
+        }
+        blockX = xs;
+        blockW = ws;
+        done = ds;
+        titles = ts;
+        times = tm;
+        boolean grew = n != rows;
+        rows = n;
+        laidOutItems = items;
+        laidOutWidth = width;
+        layouts++;
+        if (grew) revalidate();
+        return true;
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        ScheduleSnapshot.Item[] items = currentItems();
+        int n = 0;
+        while (n < items.length && items[n].getStartTime() != null) n++;
+        return new Dimension(550, Math.max(MIN_HEIGHT, ROW_TOP + n * ROW_HEIGHT + MARGIN));
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        ensureLayout();
+        Graphics2D g2d = (Graphics2D) g.create();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) clip = new Rectangle(0, 0, getWidth(), getHeight());
+        int width = laidOutWidth;
+
+        // Ruler, only when it is in the clip
+        if (clip.y < RULER_Y + 10) {
+            g2d.setColor(RULER_COLOR);
+            g2d.drawLine(MARGIN, RULER_Y, width + MARGIN, RULER_Y);
+            g2d.setColor(TICK_COLOR);
+            g2d.setFont(HOUR_FONT);
+            for (int hour = 0; hour < 24; hour++) {
+                int x = MARGIN + (hour * width) / 24;
+                g2d.drawLine(x, RULER_Y - 8, x, RULER_Y + 8);
+                g2d.drawString(HOUR_LABELS[hour], x - 6, RULER_Y - 12);
+            }
+        }
+
+        // Rows intersecting the clip
+        int first = Math.max(0, (clip.y - ROW_TOP) / ROW_HEIGHT);
+        int last = Math.min(rows - 1, (clip.y + clip.height - ROW_TOP) / ROW_HEIGHT);
+        g2d.setFont(TASK_FONT);
+        for (int i = first; i <= last; i++) {
+            int top = ROW_TOP + i * ROW_HEIGHT;
+            block.setRoundRect(blockX[i], top, blockW[i], BLOCK_HEIGHT, 10, 10);
+            g2d.setColor(done[i] ? DONE_COLOR : pendingColor);
+            g2d.fill(block);
+            g2d.setColor(Color.WHITE);
+            g2d.drawString(titles[i], blockX[i] + 5, top + 15);
+            g2d.drawString(times[i], blockX[i] + 5, top + 28);
+        }
+        g2d.dispose();
+    }
+}
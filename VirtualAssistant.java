@@ -1,12 +1,22 @@
+import java.io.IOException;
 import java.time.*;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.stream.Collectors;
 
 public class VirtualAssistant {
     public final Scanner in = new Scanner(System.in);
-    public final Map<LocalDate, List<Task>> schedules = new HashMap<>();
+    // Date-ordered schedules with monthly rollups; owns the overlap index
+    public final ScheduleStore store = new ScheduleStore();
+    public final NavigableMap<LocalDate, List<Task>> schedules = store.days;
+    public final ScheduleIndex index = store.index;
     public String userName;
+    // Write-ahead journal that persists every schedule mutation (null when unavailable)
+    public ScheduleJournal journal;
+    // How many alternative slots to offer on overlap, and how many days ahead to look
+    public static final int SLOT_SUGGESTIONS = 3;
+    public static final int SLOT_SEARCH_DAYS = 7;
+    public JournalCompactor compactor;
+    public ReminderScheduler reminders;
 
     public static void main(String[] args) {
         new VirtualAssistant().start();
@@ -14,80 +24,58 @@ public class VirtualAssistant {
 
     public void start() {
         greetAndGetName();
+        openScheduleJournal();
         startReminderThread();
         mainLoop();
+        reminders.shutdown();
+        closeScheduleJournal();
     }
 
-    // Reminder thread: notifies 5 minutes before a task start and reminds for breaks
-    public void startReminderThread() {
-        // Use a background daemon thread so it doesn't block program exit
-        Thread reminder = new Thread(() -> {
-            // Track which task start reminders we've already shown (by id)
-            final Set<java.util.UUID> remindedStarts = Collections.synchronizedSet(new HashSet<>());
-            // Track when focused work started (epoch seconds) to detect 1 hour continuous work
-            long focusedStart = -1L;
-            while (true) {
-                try {
-                    LocalDate today = LocalDate.now();
-                    LocalDateTime now = LocalDateTime.now();
-                    List<Task> todays = schedules.getOrDefault(today, Collections.emptyList());
-                    // Sort tasks by start time if available
-                    List<Task> sorted = todays.stream()
-                            .filter(t -> t.getStartTime() != null)
-                            .sorted(Comparator.comparing(Task::getStartTime))
-                            .collect(Collectors.toList());
-
-                    boolean anyTaskInProgress = false;
-                    for (Task t : sorted) {
-                        if (t.isDone()) continue;
-                        LocalTime st = t.getStartTime();
-                        LocalTime et = t.getEndTime();
-                        if (st == null) continue;
-                        LocalDateTime taskStart = LocalDateTime.of(today, st);
-                        LocalDateTime taskEnd = et == null ? taskStart.plusMinutes(t.getDurationMinutes()) : LocalDateTime.of(today, et);
-
-                        // Reminder 5 minutes before start
-                        if (!remindedStarts.contains(t.getId())) {
-                            LocalDateTime remindAt = taskStart.minusMinutes(5);
-                            if (!now.isBefore(remindAt) && now.isBefore(taskStart)) {
-                                System.out.println("\n[Reminder] Upcoming task in 5 minutes: " + t.getTitle() + " (starts at " + st + ")");
-                                remindedStarts.add(t.getId());
-                            }
-                        }
-
-                        // If task currently in progress
-                        if (!now.isBefore(taskStart) && now.isBefore(taskEnd)) {
-                            anyTaskInProgress = true;
-                        }
-                    }
+    // Load the user's saved schedules and keep journaling changes from here on
+    public void openScheduleJournal() {
+        try {
+            journal = ScheduleJournal.open(ScheduleJournal.fileForUser(userName), schedules);
+            store.rebuild();
+            if (journal.getReplayedRecords() > 0) {
+                System.out.println("Loaded saved schedules (" + schedules.size() + " days).");
+            }
+            // Older days are kept packed until they are opened again
+            store.freezeOldDays();
+            compactor = new JournalCompactor(journal);
+            compactor.start();
+        } catch (IOException e) {
+            journal = null;
+            System.out.println("[Persistence] Could not open schedule journal: " + e.getMessage());
+        }
+    }
 
-                    // Break reminder: if continuous focused work reaches 60 minutes, remind and reset
-                    if (anyTaskInProgress) {
-                        if (focusedStart == -1L) focusedStart = Instant.now().getEpochSecond();
-                        long elapsedSeconds = Instant.now().getEpochSecond() - focusedStart;
-                        if (elapsedSeconds >= 60 * 60) {
-                            System.out.println("[Break Reminder] You've been focused for 1 hour. Take a 5-10 minute break.");
-                            // reset focusedStart to now so reminder repeats after another hour
-                            focusedStart = Instant.now().getEpochSecond();
-                        }
-                    } else {
-                        // no active task — reset focused timer
-                        focusedStart = -1L;
-                    }
+    public void closeScheduleJournal() {
+        if (journal == null) return;
+        if (compactor != null) compactor.shutdown();
+        compactor = null;
+        try {
+            journal.close();
+        } catch (IOException e) {
+            System.out.println("[Persistence] Could not save schedules: " + e.getMessage());
+        }
+        journal = null;
+    }
 
-                    Thread.sleep(30 * 1000); // check every 30 seconds
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
-                } catch (Exception ex) {
-                    // Keep the thread alive on other exceptions
-                    System.out.println("[Reminder Thread Error] " + ex.getMessage());
-                    try { Thread.sleep(30 * 1000); } catch (InterruptedException ie) { Thread.currentThread().interrupt(); break; }
-                }
+    // Reminders: notifies 5 minutes before a task start and reminds for breaks.
+    // The scheduler sleeps until the next reminder is due and re-plans on every change.
+    public void startReminderThread() {
+        reminders = new ReminderScheduler(store, new ReminderScheduler.Handler() {
+            @Override
+            public void startingSoon(Task t) {
+                System.out.println("\n[Reminder] Upcoming task in 5 minutes: " + t.getTitle() + " (starts at " + t.getStartTime() + ")");
+            }
+
+            @Override
+            public void breakDue() {
+                System.out.println("[Break Reminder] You've been focused for 1 hour. Take a 5-10 minute break.");
             }
-        }, "VA-Reminder-Thread");
-        reminder.setDaemon(true);
-        reminder.start();
+        });
+        reminders.start();
     }
 
     public void greetAndGetName() {
@@ -141,25 +129,23 @@ public class VirtualAssistant {
     // Option 2
     public void createScheduleForDay() {
         LocalDate date = readDate("Enter date for schedule (yyyy-MM-dd): ");
-        List<Task> tasks = schedules.computeIfAbsent(date, d -> new ArrayList<>());
         System.out.println("Creating / editing schedule for " + date);
         while (true) {
             System.out.println("1) Add task");
             System.out.println("2) Finish");
             int c = readInt("Choose: ");
             if (c == 1) {
-                addTaskToList(tasks);
+                addTaskToList(date);
             } else if (c == 2) {
                 break;
             } else {
                 System.out.println("Invalid option");
             }
         }
-        schedules.put(date, tasks);
-        System.out.println("Saved schedule for " + date + " (" + tasks.size() + " tasks).");
+        System.out.println("Saved schedule for " + date + " (" + store.tasksFor(date).size() + " tasks).");
     }
 
-    public void addTaskToList(List<Task> tasks) {
+    public void addTaskToList(LocalDate date) {
         System.out.print("\nTask title: ");
         String title = in.nextLine().trim();
         if (title.isEmpty()) {
@@ -178,46 +164,62 @@ public class VirtualAssistant {
         }
 
         // Check for overlaps
-        if (hasOverlap(tasks, start, end, null)) {
+        boolean allowOverlap = false;
+        if (hasOverlap(date, start, end, null)) {
             System.out.println("\nWarning: This time slot overlaps with an existing task!");
+            for (Task c : store.conflicts(date, start, end)) System.out.println(" - " + c);
             int duration = end != null ? (int)Duration.between(start, end).toMinutes() : 60; // default 1 hour
-            LocalTime nextSlot = findNextAvailableSlot(tasks, duration);
-            
-            if (nextSlot != null) {
-                System.out.println("\nNext available slot: " + nextSlot + " - " + nextSlot.plusMinutes(duration));
-                System.out.print("\nWould you like to use this slot instead? (y/n): ");
-                String answer = in.nextLine().trim().toLowerCase();
-                if (answer.startsWith("y")) {
-                    start = nextSlot;
-                    end = nextSlot.plusMinutes(duration);
+            List<LocalDateTime> slots = store.findSlots(date, date.plusDays(SLOT_SEARCH_DAYS - 1), duration, SLOT_SUGGESTIONS);
+
+            if (!slots.isEmpty()) {
+                System.out.println("\nNext available slots:");
+                for (int i = 0; i < slots.size(); i++) {
+                    LocalDateTime s = slots.get(i);
+                    System.out.println((i + 1) + ") " + s.toLocalDate() + " " + s.toLocalTime() + " - " + s.toLocalTime().plusMinutes(duration));
+                }
+                int pick = readInt("\nPick a slot number to use it instead, or 0 to keep your time: ");
+                if (pick >= 1 && pick <= slots.size()) {
+                    LocalDateTime s = slots.get(pick - 1);
+                    date = s.toLocalDate();
+                    start = s.toLocalTime();
+                    end = start.plusMinutes(duration);
                 } else {
                     System.out.print("\nWould you like to add the task anyway? (y/n): ");
-                    answer = in.nextLine().trim().toLowerCase();
+                    String answer = in.nextLine().trim().toLowerCase();
                     if (!answer.startsWith("y")) {
                         System.out.println("\nTask not added.\n");
                         return;
                     }
+                    allowOverlap = true;
                 }
             } else {
-                System.out.println("\nNo available slots found today. Consider scheduling for another day.");
+                System.out.println("\nNo available slots found in the next " + SLOT_SEARCH_DAYS + " days.");
                 System.out.print("\nWould you like to add the task anyway? (y/n): ");
                 String answer = in.nextLine().trim().toLowerCase();
                 if (!answer.startsWith("y")) {
                     System.out.println("\nTask not added.\n");
                     return;
                 }
+                allowOverlap = true;
             }
         }
         
         Task t = new Task(title, start, end);
-        tasks.add(t);
+        if (allowOverlap) {
+            store.add(date, t);
+        } else if (!store.addIfNoOverlap(date, t)) {
+            // Checked and inserted under one lock; another writer got there first
+            System.out.println("\nThat time slot was just taken by another task. Task not added.\n");
+            return;
+        }
+        if (journal != null) journal.recordAdd(date, t);
         System.out.println("\nAdded: " + t + "\n");
     }
 
     // Option 3
     public void editScheduleMenu() {
         LocalDate date = readDate("Enter date of schedule to edit (yyyy-MM-dd): ");
-        List<Task> tasks = schedules.get(date);
+        List<Task> tasks = store.tasksFor(date);
         if (tasks == null || tasks.isEmpty()) {
             System.out.println("No schedule found for " + date + ". You can create one instead.");
             return;
@@ -231,11 +233,10 @@ public class VirtualAssistant {
             System.out.println("4) Back to main menu");
             int c = readInt("Choose: ");
             switch (c) {
-                case 1 -> addTaskToList(tasks);
-                case 2 -> deleteTask(tasks);
-                case 3 -> modifyTask(tasks);
+                case 1 -> addTaskToList(date);
+                case 2 -> deleteTask(date, tasks);
+                case 3 -> modifyTask(date, tasks);
                 case 4 -> {
-                    schedules.put(date, tasks);
                     return;
                 }
                 default -> System.out.println("Invalid option");
@@ -243,17 +244,19 @@ public class VirtualAssistant {
         }
     }
 
-    public void deleteTask(List<Task> tasks) {
+    public void deleteTask(LocalDate date, List<Task> tasks) {
         int idx = readInt("Enter task number to delete: ") - 1;
         if (idx < 0 || idx >= tasks.size()) {
             System.out.println("Invalid task number.");
             return;
         }
-        Task removed = tasks.remove(idx);
+        Task removed = tasks.get(idx);
+        store.remove(date, removed);
+        if (journal != null) journal.recordDelete(date, removed);
         System.out.println("Removed: " + removed);
     }
 
-    public void modifyTask(List<Task> tasks) {
+    public void modifyTask(LocalDate date, List<Task> tasks) {
         int idx = readInt("Enter task number to modify: ") - 1;
         if (idx < 0 || idx >= tasks.size()) {
             System.out.println("Invalid task number.");
@@ -263,7 +266,10 @@ public class VirtualAssistant {
         System.out.println("Current: " + t);
         System.out.print("New title (leave blank to keep): ");
         String title = in.nextLine().trim();
-        if (!title.isEmpty()) t.setTitle(title);
+        if (!title.isEmpty()) {
+            store.edit(date, t, () -> t.setTitle(title));
+            if (journal != null) journal.recordEdit(date, t);
+        }
         System.out.print("New start time (HH:mm) (leave blank to keep): ");
         String newStart = in.nextLine().trim();
         LocalTime newStartTime = null;
@@ -297,7 +303,7 @@ public class VirtualAssistant {
         }
 
         // Check for overlaps with other tasks
-        if (hasOverlap(tasks, finalStart, finalEnd, t)) {
+        if (hasOverlap(date, finalStart, finalEnd, t)) {
             System.out.println("Warning: These times would overlap with another task!");
             System.out.print("Would you like to update anyway? (y/n): ");
             String answer = in.nextLine().trim().toLowerCase();
@@ -307,16 +313,16 @@ public class VirtualAssistant {
             }
         }
 
-        // Update times if we got here
-        if (newStartTime != null) t.setStartTime(newStartTime);
-        if (newEndTime != null) t.setEndTime(newEndTime);
+        // Update times if we got here (set together so the pair is validated as a whole)
+        store.edit(date, t, () -> t.setTimes(finalStart, finalEnd));
+        if (journal != null) journal.recordEdit(date, t);
         System.out.println("Modified: " + t);
     }
 
     // Option 4
     public void showScheduleMenu() {
         LocalDate date = readDate("Enter date to view schedule (yyyy-MM-dd): ");
-        List<Task> tasks = schedules.getOrDefault(date, Collections.emptyList());
+        List<Task> tasks = store.tasksFor(date);
         if (tasks.isEmpty()) {
             System.out.println("No tasks scheduled for " + date);
             return;
@@ -351,7 +357,7 @@ public class VirtualAssistant {
     // Option 5
     public void accomplishTasksMenu() {
         LocalDate date = readDate("Enter date of schedule to mark accomplished (yyyy-MM-dd): ");
-        List<Task> tasks = schedules.get(date);
+        List<Task> tasks = store.tasksFor(date);
         if (tasks == null || tasks.isEmpty()) {
             System.out.println("No schedule for " + date);
             return;
@@ -365,15 +371,17 @@ public class VirtualAssistant {
             System.out.println("5) Back");
             int c = readInt("Choose: ");
             switch (c) {
-                case 1 -> markSingleTaskDone(tasks);
-                case 2 -> markMultipleTasksDone(tasks);
+                case 1 -> markSingleTaskDone(date, tasks);
+                case 2 -> markMultipleTasksDone(date, tasks);
                 case 3 -> {
-                    tasks.forEach(t -> t.setDone(true));
+                    tasks.forEach(t -> {
+                        store.edit(date, t, () -> t.setDone(true));
+                        if (journal != null) journal.recordDone(date, t);
+                    });
                     System.out.println("All tasks marked done.");
                 }
                 case 4 -> showProgress(tasks);
                 case 5 -> {
-                    schedules.put(date, tasks);
                     return;
                 }
                 default -> System.out.println("Invalid option");
@@ -381,7 +389,7 @@ public class VirtualAssistant {
         }
     }
 
-    public void markSingleTaskDone(List<Task> tasks) {
+    public void markSingleTaskDone(LocalDate date, List<Task> tasks) {
         printTasksBrief(tasks);
         int idx = readInt("Enter task number completed: ") - 1;
         if (idx < 0 || idx >= tasks.size()) {
@@ -389,11 +397,12 @@ public class VirtualAssistant {
             return;
         }
         Task t = tasks.get(idx);
-        t.setDone(true);
+        store.edit(date, t, () -> t.setDone(true));
+        if (journal != null) journal.recordDone(date, t);
         System.out.println("Marked done: " + t.getTitle());
     }
 
-    public void markMultipleTasksDone(List<Task> tasks) {
+    public void markMultipleTasksDone(LocalDate date, List<Task> tasks) {
         System.out.print("Enter task numbers separated by commas (e.g., 1,3,4): ");
         String line = in.nextLine().trim();
         if (line.isEmpty()) {
@@ -406,7 +415,9 @@ public class VirtualAssistant {
             try {
                 int idx = Integer.parseInt(p.trim()) - 1;
                 if (idx >= 0 && idx < tasks.size()) {
-                    tasks.get(idx).setDone(true);
+                    Task t = tasks.get(idx);
+                    store.edit(date, t, () -> t.setDone(true));
+                    if (journal != null) journal.recordDone(date, t);
                     marked++;
                 }
             } catch (NumberFormatException ignored) {}
@@ -480,50 +491,9 @@ public class VirtualAssistant {
     }
 
     // Time slot management helpers
-    public boolean hasOverlap(List<Task> tasks, LocalTime start, LocalTime end, Task excludeTask) {
-        if (start == null || end == null) return false;
-        return tasks.stream()
-                .filter(t -> t != excludeTask && !t.isDone()) // ignore done tasks and the task being modified
-                .filter(t -> t.getStartTime() != null && t.getEndTime() != null)
-                .anyMatch(t -> {
-                    // Check if either start or end time falls within another task's time range
-                    return (!start.isAfter(t.getEndTime()) && !end.isBefore(t.getStartTime()));
-                });
-    }
-
-    public LocalTime findNextAvailableSlot(List<Task> tasks, int durationMinutes) {
-        if (tasks.isEmpty()) return LocalTime.of(9, 0); // Default to 9 AM if no tasks
-
-        // Get all tasks with times, sorted by start time
-        List<Task> scheduledTasks = tasks.stream()
-                .filter(t -> !t.isDone() && t.getStartTime() != null && t.getEndTime() != null)
-                .sorted(Comparator.comparing(Task::getStartTime))
-                .collect(Collectors.toList());
-
-        if (scheduledTasks.isEmpty()) return LocalTime.of(9, 0);
-
-        // Start with work day beginning (9 AM)
-        LocalTime slot = LocalTime.of(9, 0);
-        
-        // Try each potential slot
-        for (Task task : scheduledTasks) {
-            // If there's room before this task
-            LocalTime taskStart = task.getStartTime();
-            if (slot.plusMinutes(durationMinutes).isBefore(taskStart) || 
-                slot.plusMinutes(durationMinutes).equals(taskStart)) {
-                return slot; // We found a slot that fits
-            }
-            // Move to end of current task
-            slot = task.getEndTime();
-        }
-
-        // If we get here, try after the last task
-        if (slot.plusMinutes(durationMinutes).isBefore(LocalTime.of(17, 0))) {
-            return slot; // Return slot after last task if it ends before 5 PM
-        }
-
-        // No slot found today
-        return null;
+    // [start, end) overlaps a pending task of that day (done tasks and excludeTask are ignored); O(log n)
+    public boolean hasOverlap(LocalDate date, LocalTime start, LocalTime end, Task excludeTask) {
+        return store.hasOverlap(date, start, end, excludeTask);
     }
 
     public void printTasksBrief(List<Task> tasks) {
@@ -549,67 +519,5 @@ public class VirtualAssistant {
         System.out.println("\nTotal tasks: " + tasks.size() + " | Total estimated minutes: " + totalDuration + "\n");
     }
 
-    // Task class
-    public static class Task {
-        public final java.util.UUID id;
-        public String title;
-        // optional fallback duration (minutes) if times are not provided
-        public int durationMinutes;
-        public LocalTime startTime;
-        public LocalTime endTime;
-        public boolean done;
-
-        Task(String title, LocalTime startTime, LocalTime endTime) {
-            this.id = java.util.UUID.randomUUID();
-            this.title = title;
-            this.startTime = startTime;
-            this.endTime = endTime;
-            this.durationMinutes = 0;
-            this.done = false;
-        }
-
-        // Legacy constructor (kept for safety) - will set durationMinutes only
-        Task(String title, int durationMinutes) {
-            this.id = java.util.UUID.randomUUID();
-            this.title = title;
-            this.durationMinutes = Math.max(0, durationMinutes);
-            this.startTime = null;
-            this.endTime = null;
-            this.done = false;
-        }
-
-        java.util.UUID getId() { return id; }
-
-        String getTitle() { return title; }
-
-        void setTitle(String title) { this.title = title; }
-
-        LocalTime getStartTime() { return startTime; }
-
-        void setStartTime(LocalTime startTime) { this.startTime = startTime; }
-
-        LocalTime getEndTime() { return endTime; }
-
-        void setEndTime(LocalTime endTime) { this.endTime = endTime; }
-
-        int getDurationMinutes() {
-            if (startTime != null && endTime != null) {
-                long mins = java.time.Duration.between(startTime, endTime).toMinutes();
-                return (int)Math.max(0, mins);
-            }
-            return durationMinutes;
-        }
-
-        void setDurationMinutes(int durationMinutes) { this.durationMinutes = Math.max(0, durationMinutes); }
-
-        boolean isDone() { return done; }
-
-        void setDone(boolean done) { this.done = done; }
-
-        @Override
-        public String toString() {
-            String times = (startTime == null ? "" : startTime.toString()) + (endTime == null ? "" : "-" + endTime.toString());
-            return title + (times.isEmpty() ? "" : " (" + times + ")") + " (" + getDurationMinutes() + " min) " + (done ? "[DONE]" : "[PENDING]");
-        }
-    }
-}
\ No newline at end of file
+    // Task class lives in Task.java and is shared with the GUI and the schedule journal
+}
@@ -12,26 +12,58 @@ import java.time.format.*;
 import java.util.*;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 public class VirtualAssistantGUI extends JFrame {
     public static final long serialVersionUID = 1L;
-    public transient Map<LocalDate, List<Task>> schedules = new HashMap<>();
+    // Date-ordered schedules with monthly rollups; owns the overlap index
+    public final transient ScheduleStore store = new ScheduleStore();
+    public final transient NavigableMap<LocalDate, List<Task>> schedules = store.days;
+    public final transient ScheduleIndex scheduleIndex = store.index;
+    // Alternative slots offered when a new task overlaps, and how many days ahead to look
+    public static final int SLOT_SUGGESTIONS = 3;
+    public static final int SLOT_SEARCH_DAYS = 7;
+    // Names offered under the launcher's text field
+    public static final int LAUNCH_SUGGESTIONS = 6;
+    // How long to wait for a launcher such as "open -a" to report success
+    public static final int LAUNCH_CHECK_SECONDS = 5;
+    // Sentinel from chooseAlternativeSlot: keep the requested time
+    public static final LocalDateTime NO_ALTERNATIVE = LocalDateTime.MIN;
     public String userName;
     public JLabel clockLabel;
     public JPanel mainPanel;
     public transient TaskListPanel taskListPanel;
-    // Monthly stats persisted per user: map monthKey (YYYY-MM) -> int[]{completed,total}
-    public transient Map<String, int[]> monthlyStats = new HashMap<>();
+    // Monthly stats persisted per user in a memory-mapped slot file (null until the user is known)
+    public transient MonthlyStatsStore monthlyStats;
+    // Write-behind stage: the EDT only touches in-memory state; this flushes it to disk
+    public final transient WriteBehindStage persistence = new WriteBehindStage();
+    // Background work (app launches, guided sessions); one scope per window
+    public final transient AssistantExecutor executor = new AssistantExecutor("VA-Worker");
+    // Launchable files under the program folders (Windows only), kept current in the background
+    public final transient ExecutableIndex appIndex =
+        System.getProperty("os.name").toLowerCase().contains("windows") ? ExecutableIndex.forWindows() : null;
+    // PATH executables and .desktop entries (Linux / macOS), cached by folder mtime
+    public final transient DesktopAppIndex desktopApps = appIndex == null ? DesktopAppIndex.forThisSystem() : null;
+    // What was launched and how it resolved; frequent apps skip resolution
+    public final transient LaunchHistory launchHistory = new LaunchHistory(LaunchHistory.defaultFile());
+    // Bounded parallel folder search, used until the app index has been built once
+    public final transient AppSearch appSearch = new AppSearch(new HashSet<>(Arrays.asList(".exe", ".lnk")));
+    // Cached App Paths / protocol key answers, so repeat launches spawn no reg process
+    public final transient RegistryResolver registry =
+        new RegistryResolver(new RegistryResolver.ProcessRunner(), RegistryResolver.defaultFile());
+    // Write-ahead journal for schedules; opened once the user's name is known
+    public transient ScheduleJournal journal;
+    // Tasks added while no journal was open (before the name was known); journaled when one opens
+    public final transient Map<Task, LocalDate> unjournaled = new IdentityHashMap<>();
+    public transient JournalCompactor compactor;
+    // Bumped on every journal open and close; a replay that finishes after a newer one started is discarded
+    public transient int journalGeneration = 0;
+    public transient ReminderScheduler reminders;
     public JLabel greetingLabel;
     public Timer greetingHideTimer;
-    public Color accentColor = new Color(41, 128, 185); // RGB accent
-    // Fixed accent for buttons (decoupled from RGB animation)
-    public final Color buttonAccent = new Color(41, 128, 185);
-    public Timer rgbTimer;
-    public float hue = 0;
+    // Tray icon colour; fixed, so nothing has to repaint on a timer
+    public final Color accentColor = Colors.ACCENT;
+    // Button accent: the theme's fixed Colors.ACCENT
+    public final Color buttonAccent = Colors.ACCENT;
     public transient SystemTray tray;
     public transient TrayIcon trayIcon;
     // Manual focus controls (user can start/stop a focus timer)
@@ -81,16 +113,20 @@ public class VirtualAssistantGUI extends JFrame {
         // Prepare textual clock in header (timer not started yet)
         javax.swing.Timer clockTimer = setupClock();
 
-        // Setup RGB animation timer (kept for header accent only)
-        rgbTimer = new Timer(50, e -> updateRGBEffect());
-
-        // start the header clock and RGB animation
+        // start the header clock (the only periodic repaint of the main window)
         if (clockTimer != null) clockTimer.start();
-        if (rgbTimer != null) rgbTimer.start();
 
         // Start the reminder thread
         startReminderThread();
 
+        // Load the saved app index, then re-walk the program folders and watch them
+        if (appIndex != null) {
+            executor.submit(registry::load);
+            executor.submit(appIndex::refresh);
+        }
+        if (desktopApps != null) executor.submit(desktopApps::ensureLoaded);
+        executor.submit(launchHistory::load);
+
         // Show a small startup dialog (after the window is displayed) to ask name
         new javax.swing.Timer(300, ev -> {
             ((javax.swing.Timer) ev.getSource()).stop();
@@ -102,7 +138,22 @@ public class VirtualAssistantGUI extends JFrame {
         addWindowListener(new java.awt.event.WindowAdapter() {
             @Override
             public void windowClosing(java.awt.event.WindowEvent e) {
+                reminders.shutdown();
+                executor.shutdown();
+                // Run with -Dvamp.workerStats=true to see what the background workers did
+                if (Boolean.getBoolean("vamp.workerStats")) {
+                    System.out.println("Workers: " + executor.stats());
+                }
+                appSearch.shutdown();
+                if (appIndex != null) appIndex.close();
+                persistence.shutdown(5, TimeUnit.SECONDS);
                 saveMonthlyStatsForUser(userName);
+                closeMonthlyStats();
+                closeScheduleJournal();
+                // Run with -Dvamp.renderStats=true to see how well painting is cached
+                if (Boolean.getBoolean("vamp.renderStats")) {
+                    System.out.println("Surface cache: " + SurfaceCache.SHARED.stats());
+                }
             }
         });
     }
@@ -173,15 +224,8 @@ public class VirtualAssistantGUI extends JFrame {
             @Override
             protected void paintComponent(Graphics g) {
                 super.paintComponent(g);
-                Graphics2D g2d = (Graphics2D) g.create();
-                g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
-                int w = getWidth();
-                int h = getHeight();
-                GradientPaint gp = new GradientPaint(0, 0, Colors.ACCENT,
-                                                    w, h, Colors.ACCENT_LIGHT);
-                g2d.setPaint(gp);
-                g2d.fillRect(0, 0, w, h);
-                g2d.dispose();
+                // Rendered once per size; later paints copy the cached surface
+                SurfaceCache.SHARED.paintGradient(g, this, Colors.ACCENT, Colors.ACCENT_LIGHT);
             }
         };
         headerPanel.setPreferredSize(new Dimension(1000, 100));
@@ -269,12 +313,14 @@ public class VirtualAssistantGUI extends JFrame {
             if (!manualFocusRunning) {
                 manualFocusRunning = true;
                 manualFocusStart = Instant.now().getEpochSecond();
+                reminders.setManualFocus(manualFocusStart * 1000L);
                 focusBtn.setText("Stop Focus");
                 manualFocusTimer.start();
                 showNotification("Focus", "Manual focus timer started.", MessageType.INFO);
             } else {
                 manualFocusRunning = false;
                 manualFocusStart = -1L;
+                reminders.setManualFocus(-1L);
                 focusBtn.setText("Start Focus");
                 manualFocusTimer.stop();
                 focusTimerLabel.setText("00:00:00");
@@ -295,14 +341,8 @@ public class VirtualAssistantGUI extends JFrame {
         JButton button = new JButton(text) {
             @Override
             protected void paintComponent(Graphics g) {
-                Graphics2D g2d = (Graphics2D) g.create();
-                g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                // Use fixed button accent (no RGB effect on buttons)
-                GradientPaint gp = new GradientPaint(0, 0, buttonAccent.brighter(),
-                                                    0, getHeight(), buttonAccent.darker());
-                g2d.setPaint(gp);
-                g2d.fill(new RoundRectangle2D.Double(0, 0, getWidth(), getHeight(), 15, 15));
-                g2d.dispose();
+                // Fixed Colors.ACCENT background, cached per size and state
+                SurfaceCache.SHARED.paintButton(g, this, buttonAccent, 15);
                 super.paintComponent(g);
             }
         };
@@ -313,6 +353,7 @@ public class VirtualAssistantGUI extends JFrame {
         button.setBorderPainted(false);
         button.setFocusPainted(false);
         button.setCursor(new Cursor(Cursor.HAND_CURSOR));
+        button.setRolloverEnabled(true);
         button.addActionListener(e -> action.actionPerformed(e));
         panel.add(button);
     }
@@ -391,6 +432,7 @@ public class VirtualAssistantGUI extends JFrame {
         userName = first;
         // Load monthly stats for this user and refresh UI
         loadMonthlyStatsForUser(userName);
+        openScheduleJournal(userName);
         
         // Show big greeting in header immediately
         greetingLabel.setFont(new Font("Arial", Font.BOLD, 48));
@@ -623,7 +665,8 @@ public class VirtualAssistantGUI extends JFrame {
      * Updates the UI labels in real-time as each step progresses.
      */
     public void runRelaxationSessionSteps(JLabel stepLabel, JLabel instructionLabel, JLabel timerLabel, JFrame sessionFrame) {
-        new Thread(() -> {
+        // Closing or exiting the session window interrupts the steps
+        executor.scope("relaxation").bindTo(sessionFrame).submit(() -> {
             try {
                 // Step 1: Hydrate (30 seconds)
                 runStep(stepLabel, "Step 1: Hydrate & Settle",
@@ -660,7 +703,7 @@ public class VirtualAssistantGUI extends JFrame {
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
             }
-        }).start();
+        });
     }
 
     // --- Monthly stats persistence helpers ---
@@ -672,54 +715,142 @@ public class VirtualAssistantGUI extends JFrame {
         return new File(desktop, safe + "_vamp_stats.txt");
     }
 
+    // Binary slot file backing monthlyStats; the text file above is kept as an export
+    public File statsStoreFileForUser(String user) {
+        String home = System.getProperty("user.home");
+        String safe = user.replaceAll("[^A-Za-z0-9_.-]", "_");
+        File desktop = new File(home + File.separator + "Desktop");
+        return new File(desktop, safe + "_vamp_stats.bin");
+    }
+
     public String monthKey(LocalDate date) {
         return String.format("%d-%02d", date.getYear(), date.getMonthValue());
     }
 
+    /**
+     * Open the user's binary stats store. The first time, any existing text
+     * stats file is imported so history carries over. The previous store is
+     * flushed and closed, and the new one opened, on the write-behind thread,
+     * so re-entering a name never waits on the disk here.
+     */
     public synchronized void loadMonthlyStatsForUser(String user) {
-        monthlyStats.clear();
-        if (user == null || user.isEmpty()) return;
-        File f = statsFileForUser(user);
-        if (!f.exists()) return;
-        try (BufferedReader r = new BufferedReader(new FileReader(f))) {
-            String line;
-            while ((line = r.readLine()) != null) {
-                line = line.trim();
-                if (line.isEmpty()) continue;
-                String[] parts = line.split("\\s+");
-                if (parts.length >= 3) {
-                    String key = parts[0];
-                    int completed = Integer.parseInt(parts[1]);
-                    int total = Integer.parseInt(parts[2]);
-                    monthlyStats.put(key, new int[]{completed, total});
-                }
-            }
-        } catch (Exception ex) {
-            // ignore read errors
+        monthlyStats = null;
+        if (user == null || user.isEmpty()) {
+            persistence.replaceStats(null, this::monthlyStatsAttached);
+            return;
         }
+        File bin = statsStoreFileForUser(user);
+        File text = statsFileForUser(user);
+        persistence.replaceStats(() -> {
+            MonthlyStatsStore s = MonthlyStatsStore.open(bin);
+            if (s.wasCreated() && text.exists()) s.importText(text);
+            return s;
+        }, this::monthlyStatsAttached);
+    }
+
+    // Called on the write-behind thread once the store is open (null on failure)
+    public synchronized void monthlyStatsAttached(MonthlyStatsStore s) {
+        monthlyStats = s;
+        // read errors leave monthly progress on the in-memory schedules
+        if (taskListPanel != null) taskListPanel.refresh();
     }
 
+    /**
+     * Flush the binary store and refresh the human-readable text export.
+     * Only needed on exit; regular updates go straight to the mapped slots.
+     */
     public synchronized void saveMonthlyStatsForUser(String user) {
-        if (user == null || user.isEmpty()) return;
-        File f = statsFileForUser(user);
-        try (PrintWriter w = new PrintWriter(new FileWriter(f))) {
-            for (Map.Entry<String, int[]> e : monthlyStats.entrySet()) {
-                int[] arr = e.getValue();
-                w.printf("%s %d %d\n", e.getKey(), arr[0], arr[1]);
-            }
+        if (user == null || user.isEmpty() || monthlyStats == null) return;
+        try {
+            monthlyStats.force();
+            monthlyStats.exportText(statsFileForUser(user));
         } catch (Exception ex) {
             // ignore write errors
         }
     }
 
-    public synchronized void adjustMonthlyCounts(LocalDate date, int deltaCompleted, int deltaTotal) {
+    // Flush and close the store on the write-behind thread (inline once it has shut down)
+    public synchronized void closeMonthlyStats() {
+        monthlyStats = null;
+        persistence.replaceStats(null, null);
+    }
+
+    /**
+     * Open the user's schedule journal and replay saved tasks into schedules.
+     * Opening, replaying and any legacy compaction run on the write-behind
+     * thread; {@link #journalOpened} then swaps the tasks in on the EDT.
+     * Tasks created before the name was known are written to the journal too.
+     */
+    public void openScheduleJournal(String user) {
+        closeScheduleJournal();
+        if (user == null || user.isEmpty()) return;
+        int generation = journalGeneration;
+        File file = ScheduleJournal.fileForUser(user);
+        persistence.execute(() -> {
+            Map<LocalDate, List<Task>> loaded = new HashMap<>();
+            try {
+                ScheduleJournal j = ScheduleJournal.open(file, loaded);
+                SwingUtilities.invokeLater(() -> journalOpened(generation, j, loaded));
+            } catch (IOException ex) {
+                SwingUtilities.invokeLater(() -> showNotification("Persistence",
+                        "Could not open saved schedules: " + ex.getMessage(), MessageType.WARNING));
+            }
+        });
+    }
+
+    // On the EDT once the journal was replayed: show the user's tasks and start journaling
+    public void journalOpened(int generation, ScheduleJournal j, Map<LocalDate, List<Task>> loaded) {
+        if (generation != journalGeneration) {
+            // Another login (or exit) came in while this one was replaying
+            persistence.execute(() -> closeJournal(j, null));
+            return;
+        }
+        for (Map.Entry<Task, LocalDate> e : unjournaled.entrySet()) {
+            loaded.computeIfAbsent(e.getValue(), d -> new ArrayList<>()).add(e.getKey());
+        }
+        store.replaceAll(loaded);
+        journal = j;
+        for (Map.Entry<Task, LocalDate> e : unjournaled.entrySet()) j.recordAdd(e.getValue(), e.getKey());
+        unjournaled.clear();
+        persistence.attachJournal(j);
+        compactor = new JournalCompactor(j);
+        compactor.start();
+        // Older days are kept packed until they are opened again
+        persistence.execute(store::freezeOldDays);
+        if (taskListPanel != null) taskListPanel.refresh();
+    }
+
+    // Journal a new task, or hold it for the journal opened at the next login
+    public void recordAdd(LocalDate date, Task t) {
+        if (journal != null) journal.recordAdd(date, t);
+        else unjournaled.put(t, date);
+    }
+
+    // Detach the journal here; stopping the compactor and the final sync run on the write-behind thread
+    public void closeScheduleJournal() {
+        journalGeneration++;
+        if (journal == null) return;
+        ScheduleJournal j = journal;
+        JournalCompactor c = compactor;
+        journal = null;
+        compactor = null;
+        persistence.attachJournal(null);
+        persistence.execute(() -> closeJournal(j, c));
+    }
+
+    public static void closeJournal(ScheduleJournal j, JournalCompactor c) {
+        if (c != null) c.shutdown();
+        try {
+            j.close();
+        } catch (IOException ex) {
+            // ignore write errors on exit
+        }
+    }
+
+    public void adjustMonthlyCounts(LocalDate date, int deltaCompleted, int deltaTotal) {
         if (userName == null || userName.isEmpty()) return;
-        String key = monthKey(date);
-        int[] cur = monthlyStats.getOrDefault(key, new int[]{0,0});
-        int newCompleted = Math.max(0, cur[0] + deltaCompleted);
-        int newTotal = Math.max(0, cur[1] + deltaTotal);
-        monthlyStats.put(key, new int[]{newCompleted, newTotal});
-        saveMonthlyStatsForUser(userName);
+        // In-memory update only; the write-behind stage persists the slot shortly after
+        persistence.adjustMonth(date.getYear(), date.getMonthValue(), deltaCompleted, deltaTotal);
         if (taskListPanel != null) taskListPanel.refresh();
     }
 
@@ -749,124 +880,41 @@ public class VirtualAssistantGUI extends JFrame {
     // textual header clock is used instead of a round clock (see clockLabel)
 
     /**
-     * Update the dynamic header accent color (HSB hue rotation).
-     */
-    public void updateRGBEffect() {
-        hue = (hue + 0.01f) % 1.0f;
-        accentColor = Color.getHSBColor(hue, 0.8f, 0.9f);
-        mainPanel.repaint();
-    }
-
-    /**
-     * Start a background daemon thread that periodically checks tasks and
-     * shows reminders / break notifications when appropriate.
+     * Start the reminder scheduler. It sleeps until the next task reminder or
+     * break is due and re-plans whenever a task changes, so nothing polls.
      */
     public void startReminderThread() {
-        Thread reminder = new Thread(() -> {
-            final Set<UUID> remindedStarts = Collections.synchronizedSet(new HashSet<>());
-            final Set<UUID> remindedEnds = Collections.synchronizedSet(new HashSet<>());
-            long focusedStart = -1L;
-            boolean focusWarned = false; // true when 5-minute-before-break warning sent for current focus period
-            boolean relaxationPrompted = false; // true when relaxation dialog has been shown for current focus cycle
-            while (true) {
-                try {
-                    LocalDate today = LocalDate.now();
-                    LocalDateTime now = LocalDateTime.now();
-                    List<Task> todays = schedules.getOrDefault(today, Collections.emptyList());
-
-                    List<Task> sorted = todays.stream()
-                            .filter(t -> t.getStartTime() != null)
-                            .sorted(Comparator.comparing(Task::getStartTime))
-                            .collect(Collectors.toList());
-
-                    boolean anyTaskInProgress = false;
-                    for (Task t : sorted) {
-                        if (t.isDone()) continue;
-                        LocalTime st = t.getStartTime();
-                        LocalTime et = t.getEndTime();
-                        if (st == null) continue;
-
-                        LocalDateTime taskStart = LocalDateTime.of(today, st);
-                        LocalDateTime taskEnd = et == null ? taskStart.plusMinutes(t.getDurationMinutes())
-                                                         : LocalDateTime.of(today, et);
-
-                        if (!remindedStarts.contains(t.getId())) {
-                            LocalDateTime remindAt = taskStart.minusMinutes(5);
-                            if (!now.isBefore(remindAt) && now.isBefore(taskStart)) {
-                                showNotification("Task Reminder",
-                                              "Task starting in 5 minutes: " + t.getTitle(),
-                                              MessageType.INFO);
-                                remindedStarts.add(t.getId());
-                            }
-                        }
-
-                        // Warn 5 minutes before task end (encourage short break)
-                        if (taskEnd != null && !remindedEnds.contains(t.getId())) {
-                            LocalDateTime endWarnAt = taskEnd.minusMinutes(5);
-                            if (!now.isBefore(endWarnAt) && now.isBefore(taskEnd)) {
-                                showNotification("Upcoming Task End",
-                                              "Task ending in 5 minutes: " + t.getTitle() + ". Consider a short break.",
-                                              MessageType.INFO);
-                                remindedEnds.add(t.getId());
-                            }
-                        }
-
-                        if (!now.isBefore(taskStart) && now.isBefore(taskEnd)) {
-                            anyTaskInProgress = true;
-                        }
-                    }
+        reminders = new ReminderScheduler(store, new ReminderScheduler.Handler() {
+            @Override
+            public void startingSoon(Task t) {
+                showNotification("Task Reminder", "Task starting in 5 minutes: " + t.getTitle(), MessageType.INFO);
+            }
 
-                    // If user started a manual focus timer, treat as work in progress
-                    if (manualFocusRunning) {
-                        anyTaskInProgress = true;
-                        if (focusedStart == -1L) {
-                            // prefer the manual start time if available
-                            focusedStart = manualFocusStart != -1L ? manualFocusStart : Instant.now().getEpochSecond();
-                        }
-                    }
+            // Warn 5 minutes before task end (encourage short break)
+            @Override
+            public void endingSoon(Task t) {
+                showNotification("Upcoming Task End",
+                              "Task ending in 5 minutes: " + t.getTitle() + ". Consider a short break.",
+                              MessageType.INFO);
+            }
 
-                    if (anyTaskInProgress) {
-                        if (focusedStart == -1L) focusedStart = Instant.now().getEpochSecond();
-                        long elapsedSeconds = Instant.now().getEpochSecond() - focusedStart;
-                        
-                        // Trigger relaxation session dialog at exactly 60 minutes of continuous work
-                        if (!relaxationPrompted && elapsedSeconds >= 60 * 60) {
-                            SwingUtilities.invokeLater(this::showRelaxationSessionDialog);
-                            relaxationPrompted = true;
-                        }
-                        
-                        // 5-minute-before-break warning (at 55 minutes)
-                        if (!focusWarned && elapsedSeconds >= 55 * 60 && elapsedSeconds < 60 * 60) {
-                            showNotification("Upcoming Break",
-                                          "You're approaching 1 hour of focus — break in 5 minutes.",
-                                          MessageType.INFO);
-                            focusWarned = true;
-                        }
-                        // Break notification at 60 minutes
-                        if (elapsedSeconds >= 60 * 60) {
-                            showNotification("Break Time",
-                                          "You've been focused for 1 hour. Take a 5-minute break!",
-                                          MessageType.WARNING);
-                            // reset focus start for next cycle
-                            focusedStart = Instant.now().getEpochSecond();
-                            focusWarned = false; // allow next 55-min warning for the next hour
-                            relaxationPrompted = false; // allow next relaxation prompt for the next hour
-                        }
-                    } else {
-                        focusedStart = -1L;
-                        focusWarned = false;
-                        relaxationPrompted = false;
-                    }
+            @Override
+            public void breakSoon() {
+                showNotification("Upcoming Break",
+                              "You're approaching 1 hour of focus — break in 5 minutes.",
+                              MessageType.INFO);
+            }
 
-                    Thread.sleep(30 * 1000);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
-                }
+            // Relaxation session and break notification at 60 minutes of continuous work
+            @Override
+            public void breakDue() {
+                SwingUtilities.invokeLater(VirtualAssistantGUI.this::showRelaxationSessionDialog);
+                showNotification("Break Time",
+                              "You've been focused for 1 hour. Take a 5-minute break!",
+                              MessageType.WARNING);
             }
         });
-        reminder.setDaemon(true);
-        reminder.start();
+        reminders.start();
     }
 
     /**
@@ -996,10 +1044,37 @@ public class VirtualAssistantGUI extends JFrame {
 
             int duration = (int) durationSpinner.getValue();
             LocalTime endTime = startTime.plusMinutes(duration);
+            if (!endTime.isAfter(startTime)) {
+                showNotification("Error", "Task must end before midnight", MessageType.ERROR);
+                return;
+            }
+
+            // On overlap, offer the next free slots (this day onwards) instead
+            boolean allowOverlap = false;
+            if (store.hasOverlap(date, startTime, endTime, null)) {
+                LocalDateTime slot = chooseAlternativeSlot(dialog, date, duration);
+                if (slot == null) return; // cancelled: keep the dialog open
+                if (slot != NO_ALTERNATIVE) {
+                    date = slot.toLocalDate();
+                    startTime = slot.toLocalTime();
+                    endTime = startTime.plusMinutes(duration);
+                } else {
+                    allowOverlap = true;
+                }
+            }
 
             Task task = new Task(title, startTime, endTime);
-            List<Task> dateTasks = schedules.computeIfAbsent(date, k -> new ArrayList<>());
-            dateTasks.add(task);
+            if (allowOverlap) {
+                store.add(date, task);
+            } else if (!store.addIfNoOverlap(date, task)) {
+                // Another writer took the slot while the dialog was open
+                JOptionPane.showMessageDialog(dialog,
+                    "That time was just taken by another task. Please pick a different time.",
+                    "Slot Taken", JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+            recordAdd(date, task);
+            persistence.markDayDirty(date);
 
             // Update monthly totals for the task's month
             adjustMonthlyCounts(date, 0, 1);
@@ -1028,101 +1103,68 @@ public class VirtualAssistantGUI extends JFrame {
     }
 
     /**
-     * Rebuild the list of tasks shown in the View Schedule dialog. Ensures rows
-     * keep consistent sizing and that controls are attached to the correct task.
+     * Ask which free slot to use when a new task overlaps others. Returns the
+     * chosen slot, NO_ALTERNATIVE to keep the requested time, or null to cancel.
      */
-    public void rebuildTaskList(JPanel listPanel, LocalDate selectedDate, JPanel schedulePanel, JDialog dialog) {
-        listPanel.removeAll();
-        listPanel.setLayout(new BoxLayout(listPanel, BoxLayout.Y_AXIS));
-        
-        List<Task> todays = schedules.getOrDefault(selectedDate, Collections.emptyList());
-        // Sort tasks by start time to match timeline order
-        List<Task> sortedTasks = todays.stream()
-            .sorted((a, b) -> {
-                if (a.getStartTime() == null) return b.getStartTime() == null ? 0 : 1;
-                if (b.getStartTime() == null) return -1;
-                return a.getStartTime().compareTo(b.getStartTime());
-            })
-            .collect(Collectors.toList());
-
-        for (Task t : sortedTasks) {
-            // Create a fixed-height panel for consistent spacing
-            JPanel row = new JPanel() {
-                @Override
-                public Dimension getMaximumSize() {
-                    Dimension pref = getPreferredSize();
-                    return new Dimension(super.getMaximumSize().width, pref.height);
-                }
-            };
-            row.setLayout(new BorderLayout());
-            row.setBackground(Colors.ROW_BG);
-            row.setBorder(BorderFactory.createEmptyBorder(8,10,8,10));
-
-            // Left side: Task info with fixed width
-            JPanel infoPanel = new JPanel(new BorderLayout());
-            infoPanel.setOpaque(false);
-            
-            String timeText = (t.getStartTime() != null ? t.getStartTime().toString() : "") +
-                              (t.getEndTime() != null ? " - " + t.getEndTime().toString() : "");
-            
-            // Create a fixed-width label panel
-            JLabel lbl = new JLabel(t.getTitle() + " (" + timeText + ")") {
-                @Override
-                public Dimension getPreferredSize() {
-                    Dimension d = super.getPreferredSize();
-                    return new Dimension(Math.min(400, d.width), d.height);
-                }
-            };
-            lbl.setForeground(Color.WHITE);
-            infoPanel.add(lbl, BorderLayout.WEST);
-
-            // Right side: Controls with fixed spacing
-            JPanel controls = new JPanel();
-            controls.setLayout(new FlowLayout(FlowLayout.RIGHT, 8, 0));
-            controls.setOpaque(false);
-            
-            JButton editBtn = createStyledButton("Edit");
-            JButton delBtn = createStyledButton("Delete");
+    public LocalDateTime chooseAlternativeSlot(Component parent, LocalDate date, int duration) {
+        List<LocalDateTime> slots = store.findSlots(date, date.plusDays(SLOT_SEARCH_DAYS - 1), duration, SLOT_SUGGESTIONS);
+        List<String> options = new ArrayList<>();
+        DateTimeFormatter fmt = DateTimeFormatter.ofPattern("EEE MMM d, HH:mm");
+        for (LocalDateTime s : slots) options.add(s.format(fmt) + " - " + s.toLocalTime().plusMinutes(duration));
+        options.add("Keep my time");
+        options.add("Cancel");
+        String message = slots.isEmpty()
+            ? "This time overlaps another task and no free slot was found in the next " + SLOT_SEARCH_DAYS + " days."
+            : "This time overlaps another task. Use one of the next free slots?";
+        int choice = JOptionPane.showOptionDialog(parent, message, "Time Conflict",
+            JOptionPane.DEFAULT_OPTION, JOptionPane.WARNING_MESSAGE, null,
+            options.toArray(), options.get(0));
+        if (choice >= 0 && choice < slots.size()) return slots.get(choice);
+        if (choice == slots.size()) return NO_ALTERNATIVE;
+        return null;
+    }
 
-            editBtn.addActionListener(evt2 -> {
-                EditTaskDialog editDialog = new EditTaskDialog(this, t, selectedDate, () -> {
+    /**
+     * Task list for the View Schedule dialog. Rows are stamped by one shared
+     * renderer and the list follows the store on its own, so the button
+     * callbacks only persist the change and refresh the other views.
+     */
+    public ScheduleList createScheduleList(ScheduleList.Model model, JPanel schedulePanel, JDialog dialog) {
+        return new ScheduleList(model, createStyledButton("Edit"), createStyledButton("Delete"), new ScheduleList.Actions() {
+            @Override
+            public void edit(Task t) {
+                LocalDate selectedDate = model.date;
+                EditTaskDialog editDialog = new EditTaskDialog(VirtualAssistantGUI.this, store, t, selectedDate, () -> {
+                    if (journal != null) journal.recordEdit(selectedDate, t);
+                    persistence.markDayDirty(selectedDate);
                     schedulePanel.repaint();
-                    rebuildTaskList(listPanel, selectedDate, schedulePanel, dialog);
                     if (taskListPanel != null) taskListPanel.refresh();
                 });
                 // initialize UI after construction to avoid 'this-escape' warnings
                 editDialog.init();
                 editDialog.setLocationRelativeTo(dialog);
                 editDialog.setVisible(true);
-            });
+            }
 
-            delBtn.addActionListener(evt2 -> {
-                int confirm = JOptionPane.showConfirmDialog(dialog, 
-                    "Delete task '" + t.getTitle() + "'?", 
-                    "Confirm", 
+            @Override
+            public void delete(Task t) {
+                LocalDate selectedDate = model.date;
+                int confirm = JOptionPane.showConfirmDialog(dialog,
+                    "Delete task '" + t.getTitle() + "'?",
+                    "Confirm",
                     JOptionPane.YES_NO_OPTION);
                 if (confirm == JOptionPane.YES_OPTION) {
                     // adjust monthly counts before removal
                     adjustMonthlyCounts(selectedDate, t.isDone() ? -1 : 0, -1);
-                    List<Task> list = schedules.getOrDefault(selectedDate, new ArrayList<>());
-                    list.removeIf(x -> x.getId().equals(t.getId()));
+                    store.remove(selectedDate, t);
+                    unjournaled.remove(t);
+                    if (journal != null) journal.recordDelete(selectedDate, t);
+                    persistence.markDayDirty(selectedDate);
                     schedulePanel.repaint();
-                    rebuildTaskList(listPanel, selectedDate, schedulePanel, dialog);
                     if (taskListPanel != null) taskListPanel.refresh();
                 }
-            });
-
-            controls.add(editBtn); 
-            controls.add(delBtn);
-
-            row.add(infoPanel, BorderLayout.CENTER);
-            row.add(controls, BorderLayout.EAST);
-            
-            // Add rigid spacing between rows
-            listPanel.add(Box.createRigidArea(new Dimension(0, 2)));
-            listPanel.add(row);
-        }
-        listPanel.revalidate(); listPanel.repaint();
+            }
+        });
     }
 
     public JLabel createLabel(String text) {
@@ -1186,14 +1228,8 @@ public class VirtualAssistantGUI extends JFrame {
         JButton button = new JButton(text) {
             @Override
             protected void paintComponent(Graphics g) {
-                Graphics2D g2d = (Graphics2D) g.create();
-                g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                // Fixed button accent so RGB hue animation does not affect buttons
-                GradientPaint gp = new GradientPaint(0, 0, buttonAccent.brighter(),
-                                                    0, getHeight(), buttonAccent.darker());
-                g2d.setPaint(gp);
-                g2d.fill(new RoundRectangle2D.Double(0, 0, getWidth(), getHeight(), 15, 15));
-                g2d.dispose();
+                // Fixed Colors.ACCENT background, cached per size and state
+                SurfaceCache.SHARED.paintButton(g, this, buttonAccent, 15);
                 super.paintComponent(g);
             }
         };
@@ -1204,6 +1240,7 @@ public class VirtualAssistantGUI extends JFrame {
         button.setBorderPainted(false);
         button.setFocusPainted(false);
         button.setCursor(new Cursor(Cursor.HAND_CURSOR));
+        button.setRolloverEnabled(true);
         return button;
     }
 
@@ -1213,6 +1250,7 @@ public class VirtualAssistantGUI extends JFrame {
      */
     public void showViewScheduleDialog(ActionEvent e) {
         JDialog dialog = new JDialog(this, "View Schedule", true);
+        dialog.setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
         dialog.setLayout(new BorderLayout());
         dialog.getContentPane().setBackground(new Color(24, 24, 24));
         dialog.setSize(600, 400);
@@ -1221,70 +1259,12 @@ public class VirtualAssistantGUI extends JFrame {
         // Initialize selected date holder to allow modification in lambda
         final LocalDate[] dateRef = {LocalDate.now()};
 
-        // Create schedule timeline panel
-        final JPanel schedulePanel = new JPanel() {
-            @Override
-            protected void paintComponent(Graphics g) {
-                super.paintComponent(g);
-                Graphics2D g2d = (Graphics2D) g.create();
-                g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-
-                List<Task> tasks = schedules.getOrDefault(dateRef[0], Collections.emptyList());
-                List<Task> sortedTasks = tasks.stream()
-                    .filter(t -> t.getStartTime() != null)
-                    .sorted(Comparator.comparing(Task::getStartTime))
-                    .collect(Collectors.toList());
-
-                int y = 20;
-                int width = getWidth() - 40;
-
-                // Draw timeline
-                g2d.setColor(new Color(150,150,150));
-                g2d.drawLine(20, y, width + 20, y);
-
-                // Draw hour markers
-                g2d.setColor(new Color(180, 180, 180));
-                g2d.setFont(new Font("Arial", Font.PLAIN, 10));
-                for (int hour = 0; hour < 24; hour++) {
-                    int x = 20 + (hour * width) / 24;
-                    g2d.drawLine(x, y - 8, x, y + 8);
-                    g2d.drawString(String.format("%02d", hour), x - 6, y - 12);
-                }
-
-                // Draw tasks
-                for (Task task : sortedTasks) {
-                    if (task.getStartTime() == null) continue;
-
-                    long startMinutes = task.getStartTime().getHour() * 60 + task.getStartTime().getMinute();
-                    long taskWidth = task.getDurationMinutes();
+        // Timeline of the selected day; lays itself out once per change and paints only visible rows
+        final TimelinePanel schedulePanel = new TimelinePanel(store, dateRef[0], buttonAccent);
 
-                    int x = 20 + (int)((startMinutes * width) / (24 * 60));
-                    int w = Math.max(3, (int)((taskWidth * width) / (24 * 60)));
-
-                    // Draw task block
-                    g2d.setColor(task.isDone() ? new Color(46, 204, 113) : buttonAccent);
-                    g2d.fill(new RoundRectangle2D.Double(x, y + 10, w, 30, 10, 10));
-
-                    // Draw task title and time
-                    g2d.setColor(Color.WHITE);
-                    g2d.setFont(new Font("Arial", Font.BOLD, 12));
-                    String timeText = task.getStartTime().toString() + 
-                                    (task.getEndTime() != null ? " - " + task.getEndTime().toString() : "");
-                    g2d.drawString(task.getTitle(), x + 5, y + 25);
-                    g2d.drawString(timeText, x + 5, y + 38);
-
-                    y += 50;
-                }
-
-                g2d.dispose();
-            }
-        };
-        schedulePanel.setBackground(new Color(24, 24, 24));
-
-        // Create task list panel
-        final JPanel taskListPanel = new JPanel();
-        taskListPanel.setLayout(new BoxLayout(taskListPanel, BoxLayout.Y_AXIS));
-        taskListPanel.setBackground(new Color(24, 24, 24));
+        // Task list of the selected day; kept in step with the store while the dialog is open
+        final ScheduleList.Model listModel = new ScheduleList.Model(store, dateRef[0]);
+        listModel.bindTo(dialog);
 
         // Header with title and date picker
         JPanel headerPanel = new JPanel(new BorderLayout(12, 0));
@@ -1326,8 +1306,8 @@ public class VirtualAssistantGUI extends JFrame {
                 (int)monthSpinner.getValue(),
                 (int)daySpinner.getValue()
             );
-            schedulePanel.repaint();
-            rebuildTaskList(taskListPanel, dateRef[0], schedulePanel, dialog);
+            schedulePanel.setDate(dateRef[0]);
+            listModel.setDate(dateRef[0]);
         });
         datePanel.add(updateBtn);
         
@@ -1339,10 +1319,7 @@ public class VirtualAssistantGUI extends JFrame {
         timelineScroll.setBorder(null);
         timelineScroll.getViewport().setBackground(new Color(24, 24, 24));
 
-        // Build initial task list
-        rebuildTaskList(taskListPanel, dateRef[0], schedulePanel, dialog);
-
-        JScrollPane listScroll = new JScrollPane(taskListPanel);
+        JScrollPane listScroll = new JScrollPane(createScheduleList(listModel, schedulePanel, dialog));
         listScroll.setBorder(null);
         listScroll.getViewport().setBackground(new Color(24,24,24));
 
@@ -1360,26 +1337,63 @@ public class VirtualAssistantGUI extends JFrame {
         buttonPanel.add(closeButton);
         dialog.add(buttonPanel, BorderLayout.SOUTH);
 
-        // Set preferred size for schedule panel based on content
-        schedulePanel.setPreferredSize(new Dimension(550,
-            Math.max(300, schedules.getOrDefault(dateRef[0], Collections.emptyList()).size() * 60)));
-
         dialog.setVisible(true);
     }
 
     /**
      * Ask user for an application name and launch it (non-blocking).
+     * Frequently launched apps and indexed matches are suggested as the user types.
      */
     public void showAppLauncherDialog(ActionEvent evt) {
-        String appName = JOptionPane.showInputDialog(this, 
-            "Enter application name to launch:", "Launch Application", 
-            JOptionPane.QUESTION_MESSAGE);
+        JDialog dialog = new JDialog(this, "Launch Application", true);
+        dialog.setLayout(new BorderLayout(8, 8));
+        dialog.getContentPane().setBackground(Colors.PANEL_BG);
+        dialog.setSize(380, 300);
+        dialog.setLocationRelativeTo(this);
 
-        if (appName != null && !appName.trim().isEmpty()) {
-            // Launch app in background thread to prevent UI freezing
-            new Thread(() -> {
+        JPanel top = new JPanel(new BorderLayout(0, 6));
+        top.setBackground(Colors.PANEL_BG);
+        top.setBorder(BorderFactory.createEmptyBorder(10, 10, 0, 10));
+        top.add(createLabel("Enter application name to launch:"), BorderLayout.NORTH);
+        JTextField nameField = createStyledTextField();
+        top.add(nameField, BorderLayout.CENTER);
+        dialog.add(top, BorderLayout.NORTH);
+
+        DefaultListModel<String> suggestions = new DefaultListModel<>();
+        JList<String> suggestionList = new JList<>(suggestions);
+        suggestionList.setBackground(Colors.INPUT_BG);
+        suggestionList.setForeground(Color.WHITE);
+        suggestionList.setSelectionBackground(Colors.ACCENT);
+        suggestionList.setFont(new Font("Arial", Font.PLAIN, 13));
+        JScrollPane scroll = new JScrollPane(suggestionList);
+        scroll.setBorder(BorderFactory.createEmptyBorder(0, 10, 0, 10));
+        scroll.getViewport().setBackground(Colors.INPUT_BG);
+        dialog.add(scroll, BorderLayout.CENTER);
+
+        Runnable update = () -> {
+            suggestions.clear();
+            for (String name : launchSuggestions(nameField.getText())) suggestions.addElement(name);
+        };
+        nameField.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
+            @Override
+            public void insertUpdate(javax.swing.event.DocumentEvent e) { update.run(); }
+            @Override
+            public void removeUpdate(javax.swing.event.DocumentEvent e) { update.run(); }
+            @Override
+            public void changedUpdate(javax.swing.event.DocumentEvent e) { update.run(); }
+        });
+        update.run();
+
+        // Launch the selected suggestion, or the typed name if none is selected
+        Runnable launch = () -> {
+            String picked = suggestionList.getSelectedValue();
+            String appName = picked != null ? picked : nameField.getText().trim();
+            if (appName.isEmpty()) return;
+            dialog.dispose();
+            // Launch app off the EDT to prevent UI freezing
+            executor.submit(() -> {
                 try {
-                    launchApplication(appName.trim());
+                    launchApplication(appName);
                 } catch (Exception ex) {
                     SwingUtilities.invokeLater(() -> {
                         showNotification("Launch Failed", 
@@ -1387,15 +1401,85 @@ public class VirtualAssistantGUI extends JFrame {
                             MessageType.ERROR);
                     });
                 }
-            }).start();
+            });
+        };
+        nameField.addActionListener(e -> launch.run());
+        // Arrow down moves from the text field into the suggestions
+        nameField.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (e.getKeyCode() == KeyEvent.VK_DOWN && !suggestions.isEmpty()) {
+                    suggestionList.requestFocusInWindow();
+                    suggestionList.setSelectedIndex(0);
+                }
+            }
+        });
+        suggestionList.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) launch.run();
+            }
+        });
+        suggestionList.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (e.getKeyCode() == KeyEvent.VK_ENTER) launch.run();
+            }
+        });
+
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 10));
+        buttons.setBackground(Colors.PANEL_BG);
+        JButton launchBtn = createStyledButton("Launch");
+        JButton cancelBtn = createStyledButton("Cancel");
+        launchBtn.addActionListener(e -> launch.run());
+        cancelBtn.addActionListener(e -> dialog.dispose());
+        buttons.add(launchBtn);
+        buttons.add(cancelBtn);
+        dialog.add(buttons, BorderLayout.SOUTH);
+
+        dialog.setVisible(true);
+    }
+
+    /**
+     * Names to offer for what has been typed so far: launch history by
+     * frecency first, then matches from the app indexes. Index lookups are
+     * skipped until the index has loaded, so typing never waits on a scan.
+     */
+    public List<String> launchSuggestions(String typed) {
+        Set<String> out = new LinkedHashSet<>(launchHistory.suggest(typed, LAUNCH_SUGGESTIONS));
+        String q = typed.trim();
+        if (!q.isEmpty() && out.size() < LAUNCH_SUGGESTIONS) {
+            if (appIndex != null && appIndex.isReady()) {
+                for (String path : appIndex.find(q, LAUNCH_SUGGESTIONS)) {
+                    String file = new File(path).getName();
+                    int dot = file.lastIndexOf('.');
+                    out.add(dot > 0 ? file.substring(0, dot) : file);
+                }
+            } else if (desktopApps != null && desktopApps.isReady()) {
+                for (DesktopAppIndex.Entry e : desktopApps.suggest(q, LAUNCH_SUGGESTIONS)) out.add(e.name);
+            }
         }
+        List<String> list = new ArrayList<>(out);
+        return list.size() > LAUNCH_SUGGESTIONS ? list.subList(0, LAUNCH_SUGGESTIONS) : list;
     }
 
     /**
      * Try to launch an application by name. Uses several fallbacks on Windows
      * (known paths, registry App Paths, protocol handlers, cmd start).
+     * A name that launched before is started from its remembered command.
      */
     public void launchApplication(String appName) {
+        List<String> cached = launchHistory.cachedCommand(appName);
+        if (cached != null) {
+            try {
+                if (cached.get(0).equals("open")) startCheckedApp(appName, cached, "Launching " + appName);
+                else startApp(appName, cached, "Launching " + appName, true);
+                return;
+            } catch (IOException ex) {
+                // stale entry: forget it and resolve from scratch
+                launchHistory.recordFailure(appName);
+            }
+        }
         try {
             String command = "";
             String os = System.getProperty("os.name").toLowerCase();
@@ -1447,8 +1531,7 @@ public class VirtualAssistantGUI extends JFrame {
                 if (lower.contains("linkedin")) {
                     // Try to open LinkedIn in default browser
                     try {
-                        new ProcessBuilder("cmd", "/c", "start", "", "https://www.linkedin.com").start();
-                        showNotification("Application Launch", "Opening LinkedIn in browser", MessageType.INFO);
+                        startApp(appName, Arrays.asList("cmd", "/c", "start", "", "https://www.linkedin.com"), "Opening LinkedIn in browser", true);
                         return;
                     } catch (IOException ex) {
                         // continue to other methods
@@ -1458,8 +1541,7 @@ public class VirtualAssistantGUI extends JFrame {
                     // Prefer protocol handler if registered
                     if (registryHasKey("HKEY_CLASSES_ROOT\\ms-copilot")) {
                         try {
-                            new ProcessBuilder("cmd", "/c", "start", "", "ms-copilot:").start();
-                            showNotification("Application Launch", "Launching Copilot via protocol", MessageType.INFO);
+                            startApp(appName, Arrays.asList("cmd", "/c", "start", "", "ms-copilot:"), "Launching Copilot via protocol", true);
                             return;
                         } catch (IOException ex) {
                             // continue to other methods
@@ -1477,8 +1559,7 @@ public class VirtualAssistantGUI extends JFrame {
                     if (p == null) continue;
                     File f = new File(p);
                     if (f.exists()) {
-                        new ProcessBuilder(f.getAbsolutePath()).start();
-                        showNotification("Application Launch", "Launching " + appName, MessageType.INFO);
+                        startApp(appName, Arrays.asList(f.getAbsolutePath()), "Launching " + appName, true);
                         return;
                     }
                 }
@@ -1487,8 +1568,7 @@ public class VirtualAssistantGUI extends JFrame {
                 if (lower.contains("whatsapp")) {
                     if (registryHasKey("HKEY_CLASSES_ROOT\\whatsapp")) {
                         try {
-                            new ProcessBuilder("cmd", "/c", "start", "", "whatsapp:").start();
-                            showNotification("Application Launch", "Launching WhatsApp via protocol", MessageType.INFO);
+                            startApp(appName, Arrays.asList("cmd", "/c", "start", "", "whatsapp:"), "Launching WhatsApp via protocol", true);
                             return;
                         } catch (IOException ex) {
                             // continue to other methods
@@ -1496,8 +1576,7 @@ public class VirtualAssistantGUI extends JFrame {
                     }
                     // try whatsapp web via default browser as last resort
                     try {
-                        new ProcessBuilder("cmd", "/c", "start", "", "https://web.whatsapp.com/").start();
-                        showNotification("Application Launch", "Opening WhatsApp Web", MessageType.INFO);
+                        startApp(appName, Arrays.asList("cmd", "/c", "start", "", "https://web.whatsapp.com/"), "Opening WhatsApp Web", true);
                         return;
                     } catch (IOException ex) {
                         // ignore
@@ -1507,130 +1586,128 @@ public class VirtualAssistantGUI extends JFrame {
                 // Check registry App Paths for common exes if not found yet
                 if (lower.contains("chrome")) {
                     String reg = queryRegistryAppPath("chrome.exe");
-                    if (reg != null) {
-                        new ProcessBuilder(reg).start();
-                        showNotification("Application Launch", "Launching " + appName, MessageType.INFO);
-                        return;
-                    }
+                    if (reg != null && startRegistryApp(appName, "chrome.exe", reg)) return;
                 }
                 if (lower.contains("whatsapp")) {
                     String reg = queryRegistryAppPath("WhatsApp.exe");
-                    if (reg != null) {
-                        new ProcessBuilder(reg).start();
-                        showNotification("Application Launch", "Launching " + appName, MessageType.INFO);
-                        return;
-                    }
+                    if (reg != null && startRegistryApp(appName, "WhatsApp.exe", reg)) return;
                 }
                 if (lower.contains("copilot")) {
                     String reg = queryRegistryAppPath("copilot.exe");
-                    if (reg != null) {
-                        new ProcessBuilder(reg).start();
-                        showNotification("Application Launch", "Launching " + appName, MessageType.INFO);
-                        return;
-                    }
+                    if (reg != null && startRegistryApp(appName, "copilot.exe", reg)) return;
                 }
 
-                // If explicit mappings didn't find the app, fall back to recursive search across common program folders
-                String[] commonPaths = { pf, pfx, local, System.getenv("APPDATA") };
+                // If explicit mappings didn't find the app, look it up in the program folder index
                 File found = null;
-                for (String basePath : commonPaths) {
-                    if (basePath == null) continue;
-                    found = findApplicationRecursive(new File(basePath), appName);
-                    if (found != null) break;
+                if (appIndex != null && appIndex.isReady()) {
+                    String indexed = appIndex.lookup(appName);
+                    if (indexed != null && new File(indexed).exists()) found = new File(indexed);
+                } else {
+                    // First start: no saved index yet, so search the folders within a deadline
+                    List<java.nio.file.Path> roots = new ArrayList<>();
+                    for (String basePath : new String[]{ pf, pfx, local, System.getenv("APPDATA") }) {
+                        if (basePath != null) roots.add(new File(basePath).toPath());
+                    }
+                    AppSearch.Result r = appSearch.search(roots, appName);
+                    if (r.path != null) found = new File(r.path);
                 }
 
                 if (found != null) {
-                    new ProcessBuilder(found.getAbsolutePath()).start();
-                    showNotification("Application Launch", "Launching " + appName, MessageType.INFO);
+                    startApp(appName, Arrays.asList(found.getAbsolutePath()), "Launching " + appName, true);
                     return;
                 }
 
                 // Final fallback: use cmd start which will attempt associations and PATH
-                new ProcessBuilder("cmd", "/c", "start", "", appName).start();
-                showNotification("Application Launch", "Attempting to launch " + appName, MessageType.INFO);
+                startApp(appName, Arrays.asList("cmd", "/c", "start", "", appName), "Attempting to launch " + appName, false);
                 return;
-            } else if (os.contains("mac")) {
-                command = "open -a " + appName;
-            } else {
-                command = appName.toLowerCase();
             }
-            // For non-Windows platforms, try a simple ProcessBuilder
-            ProcessBuilder pb = new ProcessBuilder(command.split(" "));
-            pb.start();
-            showNotification("Application Launch", "Launching " + appName, MessageType.INFO);
+
+            // Linux / macOS: resolve names and partial names through the PATH and .desktop index
+            DesktopAppIndex.Entry entry = desktopApps != null ? desktopApps.lookup(appName) : null;
+            if (entry != null) {
+                startApp(appName, entry.command, "Launching " + entry.name, true);
+                return;
+            }
+            if (os.contains("mac")) {
+                // open always starts; only its exit code says whether the app exists
+                startCheckedApp(appName, Arrays.asList("open", "-a", appName), "Launching " + appName);
+                return;
+            }
+            command = appName.toLowerCase();
+            // Not indexed: try the name as a command
+            startApp(appName, Arrays.asList(command.split(" ")), "Launching " + appName, true);
         } catch (IOException e) {
+            launchHistory.recordFailure(appName);
             showNotification("Launch Failed", 
                            "Could not launch " + appName, 
                            MessageType.ERROR);
         }
     }
 
-    // Removed unused method findApplication
+    /**
+     * Start a resolved command, record it in the launch history and notify.
+     * {@code remember} is false for fallbacks such as "cmd start name", which
+     * always start but prove nothing about the name; those are not recorded,
+     * so a mistyped name never becomes a suggestion.
+     */
+    public void startApp(String appName, List<String> command, String message, boolean remember) throws IOException {
+        new ProcessBuilder(command).start();
+        if (remember) launchHistory.recordSuccess(appName, command);
+        showNotification("Application Launch", message, MessageType.INFO);
+    }
 
-    // Better recursive search returning first match (or null)
     /**
-     * Recursively search a directory for an executable whose name contains the appName.
+     * Start a launcher that exits once it has handed off (macOS "open") and
+     * record the launch only if it exited cleanly. A non-zero exit is a
+     * failed launch. Runs off the EDT, so waiting here is fine.
      */
-    public File findApplicationRecursive(File dir, String appName) {
-        if (dir == null || !dir.exists()) return null;
-        File[] files = dir.listFiles();
-        if (files == null) return null;
-        String lower = appName.toLowerCase();
-        for (File f : files) {
-            try {
-                if (f.isDirectory()) {
-                    // If directory name contains appName, try to find exe inside
-                    if (f.getName().toLowerCase().contains(lower)) {
-                        File[] inner = f.listFiles((d, name) -> name.toLowerCase().endsWith(".exe") || name.toLowerCase().endsWith(".lnk"));
-                        if (inner != null && inner.length > 0) return inner[0];
-                    }
-                    File found = findApplicationRecursive(f, appName);
-                    if (found != null) return found;
-                } else {
-                    String nm = f.getName().toLowerCase();
-                    if (nm.contains(lower) && (nm.endsWith(".exe") || nm.endsWith(".lnk"))) return f;
-                }
-            } catch (SecurityException se) {
-                // skip unreadable directories
+    public void startCheckedApp(String appName, List<String> command, String message) throws IOException {
+        Process p = new ProcessBuilder(command).redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+        try {
+            if (!p.waitFor(LAUNCH_CHECK_SECONDS, TimeUnit.SECONDS)) {
+                // Still running: it started something, but we cannot tell what
+                showNotification("Application Launch", message, MessageType.INFO);
+                return;
             }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (p.exitValue() != 0) throw new IOException(command.get(0) + " exited with " + p.exitValue());
+        launchHistory.recordSuccess(appName, command);
+        showNotification("Application Launch", message, MessageType.INFO);
+    }
+
+    /**
+     * Start an App Path from the registry cache. If it no longer starts, the
+     * cached path is dropped (so the next lookup asks the registry again) and
+     * the caller falls through to the other strategies.
+     */
+    public boolean startRegistryApp(String appName, String exeName, String path) {
+        try {
+            startApp(appName, Arrays.asList(path), "Launching " + appName, true);
+            return true;
+        } catch (IOException ex) {
+            registry.invalidateAppPath(exeName);
+            return false;
         }
-        return null;
     }
 
     // Try to find an executable via the Windows registry App Paths key
     /**
      * Query Windows registry App Paths for a known exe and return the full path if found.
+     * Answers are cached (see {@link RegistryResolver}).
      */
     public String queryRegistryAppPath(String exeName) {
-        try {
-            Process p = new ProcessBuilder("reg", "query", "HKLM\\SOFTWARE\\Microsoft\\Windows\\CurrentVersion\\App Paths\\" + exeName, "/ve").start();
-            BufferedReader r = new BufferedReader(new InputStreamReader(p.getInputStream()));
-            String line;
-            Pattern pat = Pattern.compile("REG_\\w+\\s+(.*\\.exe)", Pattern.CASE_INSENSITIVE);
-            while ((line = r.readLine()) != null) {
-                Matcher m = pat.matcher(line);
-                if (m.find()) {
-                    return m.group(1).trim();
-                }
-            }
-            p.waitFor(2, TimeUnit.SECONDS);
-        } catch (Exception ex) {
-            // ignore
-        }
-        return null;
+        return registry.appPath(exeName);
     }
 
     /**
-     * Check whether a registry key exists (Windows only helper).
+     * Check whether a registry key exists (Windows only helper, cached).
      */
     public boolean registryHasKey(String key) {
-        try {
-            Process p = new ProcessBuilder("reg", "query", key).start();
-            int exit = p.waitFor();
-            return exit == 0;
-        } catch (Exception ex) {
-            return false;
-        }
+        return registry.hasKey(key);
     }
 
     // Custom TaskListPanel class for day-level progress and checklist
@@ -1639,7 +1716,8 @@ public class VirtualAssistantGUI extends JFrame {
         public final JProgressBar dayProgress;
         public final JProgressBar monthlyProgress;
         public final JLabel monthlyDetails;
-        public final JPanel checklistPanel;
+        public final ChecklistModel checklist;
+        public final JTable checklistTable;
 
         public TaskListPanel() {
             setBackground(new Color(24, 24, 24));
@@ -1710,12 +1788,24 @@ public class VirtualAssistantGUI extends JFrame {
 
             add(topPanel, BorderLayout.NORTH);
 
-            // Center: checklist with tasks
-            checklistPanel = new JPanel();
-            checklistPanel.setLayout(new BoxLayout(checklistPanel, BoxLayout.Y_AXIS));
-            checklistPanel.setBackground(new Color(24,24,24));
-
-            JScrollPane scroll = new JScrollPane(checklistPanel);
+            // Center: checklist with tasks; only visible rows get components
+            checklist = new ChecklistModel(store, this::toggled);
+            checklistTable = new JTable(checklist);
+            checklistTable.setTableHeader(null);
+            checklistTable.setShowGrid(false);
+            checklistTable.setIntercellSpacing(new Dimension(0, 0));
+            checklistTable.setRowHeight(30);
+            checklistTable.setFillsViewportHeight(true);
+            checklistTable.setRowSelectionAllowed(false);
+            checklistTable.setFocusable(false);
+            checklistTable.setBackground(new Color(34,34,34));
+            checklistTable.setForeground(Color.WHITE);
+            checklistTable.setFont(new Font("Arial", Font.PLAIN, 13));
+            checklistTable.getColumnModel().getColumn(ChecklistModel.DONE_COLUMN).setMaxWidth(36);
+            checklistTable.getColumnModel().getColumn(ChecklistModel.TITLE_COLUMN)
+                    .setCellRenderer(new ChecklistModel.TitleRenderer());
+
+            JScrollPane scroll = new JScrollPane(checklistTable);
             scroll.setBorder(null);
             scroll.getViewport().setBackground(new Color(24,24,24));
             add(scroll, BorderLayout.CENTER);
@@ -1723,75 +1813,55 @@ public class VirtualAssistantGUI extends JFrame {
             refresh();
         }
 
+        /**
+         * Reload today's rows if the store published a new version of the day,
+         * and update both progress bars.
+         */
         public void refresh() {
             SwingUtilities.invokeLater(() -> {
-                checklistPanel.removeAll();
                 LocalDate today = LocalDate.now();
-                java.util.List<Task> todays = schedules.getOrDefault(today, Collections.emptyList());
-                // Sort tasks by start time
-                todays.sort((a, b) -> {
-                    if (a.getStartTime() == null) return b.getStartTime() == null ? 0 : 1;
-                    if (b.getStartTime() == null) return -1;
-                    return a.getStartTime().compareTo(b.getStartTime());
-                });
+                // Thaw today if it was packed; rows come from the published snapshot
+                store.view(today);
+                checklist.load(today, store.snapshot().days.get((int) today.toEpochDay()));
+                showProgress();
+            });
+        }
 
-                int total = todays.size();
-                int done = 0;
-                for (Task t : todays) if (t.isDone()) done++;
-                int percent = total == 0 ? 0 : (int) Math.round(100.0 * done / total);
-                dayProgress.setValue(percent);
-                dayProgress.setString(percent + "% completed (" + done + "/" + total + ")");
-
-                // Update monthly progress display (for current month)
-                String key = monthKey(LocalDate.now());
-                int mDone = 0, mTotal = 0;
-                int[] arr = monthlyStats.get(key);
-                if (arr != null) {
-                    mDone = arr[0]; mTotal = arr[1];
-                } else {
-                    // fallback: compute from in-memory schedules
-                    for (Map.Entry<LocalDate, List<Task>> ent : schedules.entrySet()) {
-                        LocalDate d = ent.getKey();
-                        if (d.getYear() == LocalDate.now().getYear() && d.getMonthValue() == LocalDate.now().getMonthValue()) {
-                            for (Task tt : ent.getValue()) {
-                                mTotal++;
-                                if (tt.isDone()) mDone++;
-                            }
-                        }
-                    }
-                    // store fallback into monthlyStats so UI and persistence stay consistent
-                    monthlyStats.put(key, new int[]{mDone, mTotal});
-                    saveMonthlyStatsForUser(userName);
-                }
-                int mPercent = mTotal == 0 ? 0 : (int) Math.round(100.0 * mDone / mTotal);
-                monthlyProgress.setValue(mPercent);
-                monthlyProgress.setString(mPercent + "% completed (" + mDone + "/" + mTotal + ")");
-                monthlyDetails.setText("Current month: " + key);
-
-                for (Task t : todays) {
-                    JCheckBox cb = new JCheckBox(t.getTitle() + (t.getStartTime()!=null? " ("+t.getStartTime().toString()+")":""));
-                    cb.setSelected(t.isDone());
-                    cb.setBackground(new Color(34,34,34));
-                    cb.setForeground(t.isDone()? new Color(46,204,113): Color.WHITE);
-                    cb.setFont(new Font("Arial", Font.PLAIN, 13));
-                    cb.addActionListener(e -> {
-                        boolean newState = cb.isSelected();
-                        // adjust monthly counts for today's date
-                        t.setDone(newState);
-                        cb.setForeground(newState? new Color(46,204,113): Color.WHITE);
-                        adjustMonthlyCounts(LocalDate.now(), newState ? 1 : -1, 0);
-                        refresh();
-                    });
-                    JPanel row = new JPanel(new BorderLayout());
-                    row.setBackground(Colors.PANEL_BG);
-                    row.setBorder(BorderFactory.createEmptyBorder(6,6,6,6));
-                    row.add(cb, BorderLayout.WEST);
-                    checklistPanel.add(row);
-                }
+        // A box was ticked or cleared: persist it and update the bars, nothing else
+        public void toggled(Task t, boolean done) {
+            LocalDate today = LocalDate.now();
+            if (journal != null) journal.recordDone(today, t);
+            persistence.markDayDirty(today);
+            if (userName != null && !userName.isEmpty()) {
+                persistence.adjustMonth(today.getYear(), today.getMonthValue(), done ? 1 : -1, 0);
+            }
+            showProgress();
+        }
 
-                checklistPanel.revalidate();
-                checklistPanel.repaint();
-            });
+        public void showProgress() {
+            int total = checklist.getRowCount();
+            int done = checklist.doneCount;
+            int percent = total == 0 ? 0 : (int) Math.round(100.0 * done / total);
+            dayProgress.setValue(percent);
+            dayProgress.setString(percent + "% completed (" + done + "/" + total + ")");
+
+            // Update monthly progress display (for current month)
+            String key = monthKey(LocalDate.now());
+            int mDone = 0, mTotal = 0;
+            int[] arr = persistence.month(LocalDate.now().getYear(), LocalDate.now().getMonthValue());
+            if (arr != null) {
+                mDone = arr[0]; mTotal = arr[1];
+            } else {
+                // fallback: the store's rollup for the current month
+                int[] rollup = store.monthTotals(YearMonth.now());
+                mDone = rollup[0]; mTotal = rollup[1];
+                // store fallback into monthlyStats so UI and persistence stay consistent
+                persistence.putMonth(LocalDate.now().getYear(), LocalDate.now().getMonthValue(), mDone, mTotal);
+            }
+            int mPercent = mTotal == 0 ? 0 : (int) Math.round(100.0 * mDone / mTotal);
+            monthlyProgress.setValue(mPercent);
+            monthlyProgress.setString(mPercent + "% completed (" + mDone + "/" + mTotal + ")");
+            monthlyDetails.setText("Current month: " + key);
         }
     }
 
@@ -0,0 +1,345 @@
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Write-behind persistence stage that keeps disk I/O off the Event Dispatch Thread.
+ *
+ * Monthly counters live in an in-memory mirror of the {@link MonthlyStatsStore}
+ * slots. Callers on the EDT read and adjust the mirror and only mark the month
+ * dirty. Days whose tasks were journaled are marked dirty the same way. A
+ * single background thread flushes everything dirty at most
+ * {@code debounceMillis} after the first change: it writes the dirty slots,
+ * forces the stats file once and waits for the journal's group commit once.
+ * A burst of toggles therefore costs one flush and never stalls the UI.
+ */
+public final class WriteBehindStage {
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 250;
+
+    public final long debounceMillis;
+    public final ScheduledExecutorService executor;
+
+    // Guarded by this
+    public MonthlyStatsStore stats;
+    public ScheduleJournal journal;
+    public int[] completed = new int[MonthlyStatsStore.SLOT_COUNT];
+    public int[] total = new int[MonthlyStatsStore.SLOT_COUNT];
+    public BitSet present = new BitSet(MonthlyStatsStore.SLOT_COUNT);
+    public BitSet dirtyMonths = new BitSet(MonthlyStatsStore.SLOT_COUNT);
+    // Deltas made while no store was attached (e.g. mid-switch); applied to the next one
+    public int[] pendingCompleted = new int[MonthlyStatsStore.SLOT_COUNT];
+    public int[] pendingTotal = new int[MonthlyStatsStore.SLOT_COUNT];
+    public BitSet pendingMonths = new BitSet(MonthlyStatsStore.SLOT_COUNT);
+    public Set<LocalDate> dirtyDays = new HashSet<>();
+    public ScheduledFuture<?> scheduled;
+    // Bumped by every replaceStats; an older switch still running must not attach its store
+    public int statsGeneration = 0;
+    public boolean shutdown = false;
+
+    public volatile long flushCount = 0;
+    public volatile IOException lastFailure;
+
+    public WriteBehindStage() {
+        this(DEFAULT_DEBOUNCE_MILLIS);
+    }
+
+    public WriteBehindStage(long debounceMillis) {
+        this.debounceMillis = debounceMillis;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "VA-Write-Behind");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Attach a stats store and load its slots into the in-memory mirror.
+     * Deltas queued while nothing was attached are applied on top and
+     * written with the next flush. Pass null to detach (unwritten dirty
+     * months are dropped; flush first, or use {@link #replaceStats}).
+     */
+    public synchronized void attachStats(MonthlyStatsStore store) {
+        stats = store;
+        Arrays.fill(completed, 0);
+        Arrays.fill(total, 0);
+        present.clear();
+        dirtyMonths.clear();
+        if (store == null) return;
+        int base = MonthlyStatsStore.BASE_KEY;
+        for (int idx = 0; idx < MonthlyStatsStore.SLOT_COUNT; idx++) {
+            int key = base + idx;
+            int[] v = store.get(key / 12, key % 12 + 1);
+            if (v == null) continue;
+            completed[idx] = v[0];
+            total[idx] = v[1];
+            present.set(idx);
+        }
+        for (int idx = pendingMonths.nextSetBit(0); idx >= 0; idx = pendingMonths.nextSetBit(idx + 1)) {
+            completed[idx] = Math.max(0, completed[idx] + pendingCompleted[idx]);
+            total[idx] = Math.max(0, total[idx] + pendingTotal[idx]);
+            present.set(idx);
+            dirtyMonths.set(idx);
+        }
+        dropPending();
+        if (!dirtyMonths.isEmpty()) scheduleFlush();
+    }
+
+    // Caller holds this
+    public void dropPending() {
+        Arrays.fill(pendingCompleted, 0);
+        Arrays.fill(pendingTotal, 0);
+        pendingMonths.clear();
+    }
+
+    /**
+     * Opens a stats store; runs on the write-behind thread.
+     */
+    public interface StatsOpener {
+        MonthlyStatsStore open() throws IOException;
+    }
+
+    /**
+     * Switch stats stores without blocking the caller, so it is safe on the
+     * EDT. The current store is detached right away, together with its
+     * dirty months; from then on deltas queue for the next store. On the
+     * write-behind thread those months are written and forced, the old
+     * store is closed, and {@code next} (null for none) is opened and
+     * attached with the queued deltas. {@code attached} receives the new
+     * store, or null if there is none, it failed to open or a later switch
+     * superseded it. Once the stage is shut down this runs inline.
+     */
+    public void replaceStats(StatsOpener next, Consumer<MonthlyStatsStore> attached) {
+        MonthlyStatsStore old;
+        int[] keys;
+        int[][] values;
+        int generation;
+        // Take the dirty months and detach in one step, so every delta lands
+        // either in those months or in the pending queue
+        synchronized (this) {
+            generation = ++statsGeneration;
+            old = stats;
+            keys = dirtyMonths.stream().toArray();
+            values = valuesOf(keys);
+            attachStats(null);
+        }
+        Runnable swap = () -> {
+            if (old != null) {
+                try {
+                    writeMonths(old, keys, values);
+                    old.close();
+                } catch (IOException | RuntimeException ex) {
+                    lastFailure = ex instanceof IOException ? (IOException) ex : new IOException(ex);
+                }
+            }
+            MonthlyStatsStore opened = null;
+            if (next != null && isCurrent(generation)) {
+                try {
+                    opened = next.open();
+                } catch (IOException | RuntimeException ex) {
+                    opened = null;
+                }
+            }
+            synchronized (this) {
+                if (generation != statsGeneration) {
+                    // A later switch owns the pending deltas; it opens its own store
+                    if (opened != null) closeQuietly(opened);
+                    opened = null;
+                } else if (opened != null) {
+                    attachStats(opened);
+                } else {
+                    // Nobody to count them for
+                    dropPending();
+                }
+            }
+            if (attached != null) attached.accept(opened);
+        };
+        execute(swap);
+    }
+
+    public synchronized boolean isCurrent(int generation) {
+        return generation == statsGeneration;
+    }
+
+    public void closeQuietly(MonthlyStatsStore store) {
+        try {
+            store.close();
+        } catch (IOException ex) {
+            lastFailure = ex;
+        }
+    }
+
+    /**
+     * Run blocking persistence work (opening, replaying or closing a
+     * journal) on the write-behind thread, after anything already queued.
+     * Once the stage is shut down it runs inline.
+     */
+    public void execute(Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException ex) {
+            task.run();
+        }
+    }
+
+    public synchronized void attachJournal(ScheduleJournal j) {
+        journal = j;
+        if (j == null) dirtyDays.clear();
+    }
+
+    // Mirror index for a month, or -1 when out of the store's range
+    public static int index(int year, int month) {
+        int idx = MonthlyStatsStore.key(year, month) - MonthlyStatsStore.BASE_KEY;
+        return month < 1 || month > 12 || idx < 0 || idx >= MonthlyStatsStore.SLOT_COUNT ? -1 : idx;
+    }
+
+    /**
+     * Return {completed, total} for the month, or null when nothing is stored.
+     */
+    public synchronized int[] month(int year, int month) {
+        int idx = index(year, month);
+        if (stats == null || idx < 0 || !present.get(idx)) return null;
+        return new int[]{completed[idx], total[idx]};
+    }
+
+    /**
+     * Apply deltas (clamped at zero) and schedule the slot for writing.
+     * Returns the new {completed, total}, or null when no store is attached
+     * (the deltas are then queued for the next one).
+     */
+    public synchronized int[] adjustMonth(int year, int month, int deltaCompleted, int deltaTotal) {
+        int idx = index(year, month);
+        if (idx < 0) return null;
+        if (stats == null) {
+            // Mid-switch: keep the delta for the store that is being opened
+            pendingCompleted[idx] += deltaCompleted;
+            pendingTotal[idx] += deltaTotal;
+            pendingMonths.set(idx);
+            return null;
+        }
+        completed[idx] = Math.max(0, completed[idx] + deltaCompleted);
+        total[idx] = Math.max(0, total[idx] + deltaTotal);
+        present.set(idx);
+        dirtyMonths.set(idx);
+        scheduleFlush();
+        return new int[]{completed[idx], total[idx]};
+    }
+
+    public synchronized void putMonth(int year, int month, int done, int all) {
+        int idx = index(year, month);
+        if (stats == null || idx < 0) return;
+        completed[idx] = Math.max(0, done);
+        total[idx] = Math.max(0, all);
+        present.set(idx);
+        dirtyMonths.set(idx);
+        scheduleFlush();
+    }
+
+    /**
+     * Note that a day's tasks were journaled and should be made durable.
+     */
+    public synchronized void markDayDirty(LocalDate date) {
+        if (journal == null) return;
+        dirtyDays.add(date);
+        scheduleFlush();
+    }
+
+    public synchronized int dirtyMonthCount() { return dirtyMonths.cardinality(); }
+
+    public synchronized int dirtyDayCount() { return dirtyDays.size(); }
+
+    public long getFlushCount() { return flushCount; }
+
+    // Debounce: the first change arms a flush, later ones ride along with it
+    public void scheduleFlush() {
+        if (shutdown || scheduled != null) return;
+        scheduled = executor.schedule(this::flushNow, debounceMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Write every dirty month and wait for journaled days to be durable.
+     * Runs on the write-behind thread.
+     */
+    public void flushNow() {
+        MonthlyStatsStore store;
+        ScheduleJournal j;
+        int[] keys;
+        int[][] values;
+        boolean days;
+        synchronized (this) {
+            scheduled = null;
+            store = stats;
+            j = journal;
+            keys = dirtyMonths.stream().toArray();
+            values = valuesOf(keys);
+            dirtyMonths.clear();
+            days = !dirtyDays.isEmpty();
+            dirtyDays.clear();
+        }
+        try {
+            if (store != null) writeMonths(store, keys, values);
+            if (j != null && days) j.flush();
+            lastFailure = null;
+        } catch (IOException ex) {
+            lastFailure = ex;
+        } catch (RuntimeException ex) {
+            // store or journal closed underneath us; nothing left to flush into
+            lastFailure = new IOException(ex);
+        }
+        flushCount++;
+    }
+
+    // Caller holds this
+    public int[][] valuesOf(int[] keys) {
+        int[][] values = new int[keys.length][];
+        for (int i = 0; i < keys.length; i++) values[i] = new int[]{completed[keys[i]], total[keys[i]]};
+        return values;
+    }
+
+    public static void writeMonths(MonthlyStatsStore store, int[] keys, int[][] values) throws IOException {
+        if (keys.length == 0) return;
+        for (int i = 0; i < keys.length; i++) {
+            int key = MonthlyStatsStore.BASE_KEY + keys[i];
+            store.put(key / 12, key % 12 + 1, values[i][0], values[i][1]);
+        }
+        store.force();
+    }
+
+    /**
+     * Flush now and wait until everything dirty before this call is on disk.
+     * Blocks for up to the timeout, so it is for the exit path (via
+     * {@link #shutdown}) and tests only; while the UI runs, switch stores
+     * with {@link #replaceStats}, which never waits.
+     */
+    public boolean awaitFlushed(long timeout, TimeUnit unit) throws InterruptedException {
+        Future<?> f;
+        synchronized (this) {
+            if (executor.isShutdown()) return true;
+            if (scheduled != null) scheduled.cancel(false);
+            scheduled = null;
+            f = executor.submit(this::flushNow);
+        }
+        try {
+            f.get(timeout, unit);
+            return true;
+        } catch (ExecutionException | TimeoutException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Flush outstanding writes and stop the background thread.
+     */
+    public void shutdown(long timeout, TimeUnit unit) {
+        try {
+            awaitFlushed(timeout, unit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            shutdown = true;
+        }
+        executor.shutdown();
+    }
+}